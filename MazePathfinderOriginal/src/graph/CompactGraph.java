@@ -0,0 +1,170 @@
+package graph;
+
+import java.util.HashMap;
+
+/**
+ * <P>An immutable snapshot of a WeightedGraph, made by freeze.  The
+ * edges leading out of vertex i are targets[offsets[i]] to
+ * targets[offsets[i + 1] - 1], with their weights at the same
+ * positions of weights, so asking for the edges of a vertex is a
+ * single array copy.  The edges leading in are kept the same way,
+ * unless the graph was symmetric, in which case they are the edges
+ * leading out.</P>
+ *
+ * <P>The graph can not be changed, so addVertex and addEdge throw an
+ * UnsupportedOperationException.</P>
+ */
+public class CompactGraph<V> extends WeightedGraph<V> {
+
+	private final Object[] vertices;                 // vertices[i] is the vertex with index i
+	private final HashMap<V,Integer> indices;        // reverse of vertices
+	private final int[] offsets, targets, weights;
+	private final int[] reverseOffsets, reverseTargets, reverseWeights;
+	private final int maxDegree, maxWeight;
+
+	/*
+	 * Copy the graph through the same methods the searches use, so any
+	 * subclass (MazeGraph, ImplicitMazeGraph...) can be frozen.
+	 */
+	CompactGraph(WeightedGraph<V> graph, boolean symmetric) {
+		super(true);           //the edges are kept below, not in the HashMaps
+		int n = graph.vertexCount();
+		vertices = new Object[n];
+		indices = new HashMap<>(Math.max(16, (int)(n / 0.75f) + 1));
+		for(int i = 0; i < n; i++) {
+			V vertex = graph.vertexAt(i);
+			vertices[i] = vertex;
+			indices.put(vertex, i);
+		}
+
+		int[] edgeTargets = new int[Math.max(graph.maxDegree(), 1)];
+		int[] edgeWeights = new int[edgeTargets.length];
+		offsets = new int[n + 1];
+		for(int i = 0; i < n; i++) {
+			offsets[i + 1] = offsets[i] + graph.successors(i, edgeTargets, edgeWeights);
+		}
+		targets = new int[offsets[n]];
+		weights = new int[offsets[n]];
+		int heaviest = 0;
+		int mostEdges = 0;
+		for(int i = 0; i < n; i++) {
+			int count = graph.successors(i, edgeTargets, edgeWeights);
+			System.arraycopy(edgeTargets, 0, targets, offsets[i], count);
+			System.arraycopy(edgeWeights, 0, weights, offsets[i], count);
+			for(int e = 0; e < count; e++) {
+				heaviest = Math.max(heaviest, edgeWeights[e]);
+			}
+			mostEdges = Math.max(mostEdges, count);
+		}
+
+		if(symmetric) {
+			reverseOffsets = offsets;
+			reverseTargets = targets;
+			reverseWeights = weights;
+		} else {
+			//turn the edges around: count the edges into each vertex, then drop every edge into its slot
+			reverseOffsets = new int[n + 1];
+			for(int e = 0; e < targets.length; e++) {
+				reverseOffsets[targets[e] + 1]++;
+			}
+			for(int i = 0; i < n; i++) {
+				mostEdges = Math.max(mostEdges, reverseOffsets[i + 1]);
+				reverseOffsets[i + 1] += reverseOffsets[i];
+			}
+			reverseTargets = new int[targets.length];
+			reverseWeights = new int[targets.length];
+			int[] next = new int[n];
+			System.arraycopy(reverseOffsets, 0, next, 0, n);
+			for(int from = 0; from < n; from++) {
+				for(int e = offsets[from]; e < offsets[from + 1]; e++) {
+					int slot = next[targets[e]]++;
+					reverseTargets[slot] = from;
+					reverseWeights[slot] = weights[e];
+				}
+			}
+		}
+		maxDegree = mostEdges;
+		maxWeight = heaviest;
+	}
+
+	@Override
+	public void addVertex(V vertex) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void addEdge(V from, V to, Integer weight) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean containsVertex(V vertex) {
+		return indices.containsKey(vertex);
+	}
+
+	@Override
+	public Integer getWeight(V from, V to) {
+		int fromIndex = indexOf(from);
+		int toIndex = indexOf(to);
+		if(fromIndex == -1 || toIndex == -1) {
+			throw new IllegalArgumentException();
+		}
+		for(int e = offsets[fromIndex]; e < offsets[fromIndex + 1]; e++) {
+			if(targets[e] == toIndex) {
+				return weights[e];
+			}
+		}
+		return null;
+	}
+
+	/** @return this graph, which is already frozen */
+	@Override
+	public CompactGraph<V> freeze() {
+		return this;
+	}
+
+	@Override
+	protected int vertexCount() {
+		return vertices.length;
+	}
+
+	@Override
+	protected int indexOf(V vertex) {
+		Integer index = indices.get(vertex);
+		return index == null ? -1 : index;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	protected V vertexAt(int index) {
+		return (V)vertices[index];
+	}
+
+	@Override
+	protected int successors(int index, int[] targets, int[] weights) {
+		int start = offsets[index];
+		int count = offsets[index + 1] - start;
+		System.arraycopy(this.targets, start, targets, 0, count);
+		System.arraycopy(this.weights, start, weights, 0, count);
+		return count;
+	}
+
+	@Override
+	protected int predecessors(int index, int[] targets, int[] weights) {
+		int start = reverseOffsets[index];
+		int count = reverseOffsets[index + 1] - start;
+		System.arraycopy(reverseTargets, start, targets, 0, count);
+		System.arraycopy(reverseWeights, start, weights, 0, count);
+		return count;
+	}
+
+	@Override
+	protected int maxDegree() {
+		return maxDegree;
+	}
+
+	@Override
+	protected int maxWeight() {
+		return maxWeight;
+	}
+}
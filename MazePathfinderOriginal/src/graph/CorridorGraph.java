@@ -0,0 +1,374 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <P>A smaller copy of a graph for shortest path queries, with every
+ * corridor contracted into one edge.  A corridor is a chain of vertices
+ * with exactly two edges each (most of a perfect maze), and it is
+ * replaced by a single edge between the vertices at its two ends,
+ * weighing the sum of its weights.  Only junctions and dead ends (any
+ * vertex without exactly two edges) are left as vertices, so the
+ * searches settle far fewer of them.</P>
+ *
+ * <P>The start and end of a query can still be any vertex of the
+ * original graph.  A vertex in the middle of a corridor is joined to
+ * the two ends of its corridor just for that query, and the path that
+ * is returned is expanded back into every vertex of the original
+ * graph, so it is the same kind of path the original graph's
+ * DoDijkstraToTarget returns, with the same cost.</P>
+ *
+ * <P>The original graph must have every edge in both directions with
+ * the same weight, as MazeGraph and ImplicitMazeGraph do, and must not
+ * change afterwards; the corridors are walked again on it to expand
+ * paths.  Queries do not notify any observers, and any number of them
+ * can run at the same time.</P>
+ */
+public class CorridorGraph<V> {
+
+	private final WeightedGraph<V> graph;
+	private final int[] keptIndex;            // index of each original vertex among the kept ones, -1 inside a corridor
+	private final int[] keptVertices;         // original index of each kept vertex
+	private final int keptCount;
+	private final int[] corridorOf;           // corridor each vertex inside one belongs to
+	private final int[] costFromA;            // cost of reaching it from the corridor's first end
+	private final int[] corridorA, corridorB, corridorCost;
+	private final int[] offsets, targets, weights;    // the contracted edges, in the same form as CompactGraph
+	private final int maxDegree, maxWeight;
+
+	/**
+	 * Contract the corridors of a graph.
+	 *
+	 * @param graph a graph whose edges all come in pairs A-B and B-A of the same weight
+	 */
+	public CorridorGraph(WeightedGraph<V> graph) {
+		this.graph = graph;
+		int n = graph.vertexCount();
+		int[] edgeTargets = new int[Math.max(graph.maxDegree(), 1)];
+		int[] edgeWeights = new int[edgeTargets.length];
+		keptIndex = new int[n];
+		corridorOf = new int[n];
+		costFromA = new int[n];
+		Arrays.fill(corridorOf, -1);
+		int kept = 0;
+		for(int i = 0; i < n; i++) {
+			keptIndex[i] = graph.successors(i, edgeTargets, edgeWeights) == 2 ? -1 : kept++;
+		}
+		int[] keptList = new int[kept];
+		for(int i = 0; i < n; i++) {
+			if(keptIndex[i] != -1) {
+				keptList[keptIndex[i]] = i;
+			}
+		}
+
+		Builder builder = new Builder();
+		for(int k = 0; k < kept; k++) {
+			builder.walkFrom(keptList[k]);
+		}
+		for(int i = 0; i < n; i++) {
+			if(keptIndex[i] == -1 && corridorOf[i] == -1) {
+				//a loop of corridor with no junction on it: keep one of its vertices
+				keptIndex[i] = kept;
+				keptList = Arrays.copyOf(keptList, kept + 1);
+				keptList[kept++] = i;
+				builder.walkFrom(i);
+			}
+		}
+		keptVertices = keptList;
+		keptCount = kept;
+		corridorA = Arrays.copyOf(builder.corridorA, builder.corridors);
+		corridorB = Arrays.copyOf(builder.corridorB, builder.corridors);
+		corridorCost = Arrays.copyOf(builder.corridorCost, builder.corridors);
+
+		//count the edges out of each kept vertex, then drop every edge into its slot
+		offsets = new int[kept + 1];
+		for(int e = 0; e < builder.edges; e++) {
+			offsets[builder.edgeFrom[e] + 1]++;
+		}
+		int mostEdges = 0;
+		for(int k = 0; k < kept; k++) {
+			mostEdges = Math.max(mostEdges, offsets[k + 1]);
+			offsets[k + 1] += offsets[k];
+		}
+		targets = new int[builder.edges];
+		weights = new int[builder.edges];
+		int[] next = Arrays.copyOf(offsets, kept);
+		int heaviest = 0;
+		for(int e = 0; e < builder.edges; e++) {
+			int slot = next[builder.edgeFrom[e]]++;
+			targets[slot] = builder.edgeTo[e];
+			weights[slot] = builder.edgeWeight[e];
+			heaviest = Math.max(heaviest, builder.edgeWeight[e]);
+		}
+		maxDegree = mostEdges;
+		maxWeight = heaviest;
+	}
+
+	/* Collects the corridors and contracted edges while they are walked */
+	private class Builder {
+		final int[] edgeTargets = new int[Math.max(graph.maxDegree(), 1)];
+		final int[] edgeWeights = new int[edgeTargets.length];
+		int corridors, edges;
+		int[] corridorA = new int[16], corridorB = new int[16], corridorCost = new int[16];
+		int[] edgeFrom = new int[16], edgeTo = new int[16], edgeWeight = new int[16];
+
+		/* Follow every corridor leading out of kept vertex u that has not been followed from its other end */
+		void walkFrom(int u) {
+			int count = graph.successors(u, edgeTargets, edgeWeights);
+			int[] firstSteps = Arrays.copyOf(edgeTargets, count);
+			int[] firstWeights = Arrays.copyOf(edgeWeights, count);
+			for(int e = 0; e < count; e++) {
+				int previous = u;
+				int current = firstSteps[e];
+				int cost = firstWeights[e];
+				if(keptIndex[current] != -1) {
+					if(u < current) {          //an edge between two kept vertices, seen from both ends
+						addEdge(u, current, cost);
+					}
+					continue;
+				}
+				if(corridorOf[current] != -1) {
+					continue;                  //already followed from the other end
+				}
+				int k = corridors;
+				while(keptIndex[current] == -1) {
+					corridorOf[current] = k;
+					costFromA[current] = cost;
+					graph.successors(current, edgeTargets, edgeWeights);
+					int step = edgeTargets[0] == previous ? 1 : 0;
+					previous = current;
+					current = edgeTargets[step];
+					cost += edgeWeights[step];
+				}
+				if(corridors == corridorA.length) {
+					corridorA = Arrays.copyOf(corridorA, corridors * 2);
+					corridorB = Arrays.copyOf(corridorB, corridors * 2);
+					corridorCost = Arrays.copyOf(corridorCost, corridors * 2);
+				}
+				corridorA[k] = u;
+				corridorB[k] = current;
+				corridorCost[k] = cost;
+				corridors++;
+				if(u != current) {
+					addEdge(u, current, cost);
+				}
+			}
+		}
+
+		/* Add the contracted edge in both directions */
+		void addEdge(int u, int v, int weight) {
+			if(edges + 2 > edgeFrom.length) {
+				edgeFrom = Arrays.copyOf(edgeFrom, edgeFrom.length * 2);
+				edgeTo = Arrays.copyOf(edgeTo, edgeTo.length * 2);
+				edgeWeight = Arrays.copyOf(edgeWeight, edgeWeight.length * 2);
+			}
+			edgeFrom[edges] = keptIndex[u];
+			edgeTo[edges] = keptIndex[v];
+			edgeWeight[edges++] = weight;
+			edgeFrom[edges] = keptIndex[v];
+			edgeTo[edges] = keptIndex[u];
+			edgeWeight[edges++] = weight;
+		}
+	}
+
+	/** @return number of vertices left after contracting the corridors */
+	public int getVertexCount() {
+		return keptCount;
+	}
+
+	/** @return number of edges left after contracting the corridors, counting each direction */
+	public int getEdgeCount() {
+		return targets.length;
+	}
+
+	/**
+	 * <P>Dijkstra's algorithm on the contracted graph.  The result is
+	 * the same as the original graph's DoDijkstraToTarget: the lowest
+	 * cost path through every vertex of the original graph, and its
+	 * cost.</P>
+	 *
+	 * @param start vertex where algorithm will start
+	 * @param end vertex the path leads to
+	 * @return the lowest cost path from start to end and its cost
+	 * @throws IllegalArgumentException if either vertex is not in the graph
+	 */
+	public ShortestPath<V> DoDijkstraToTarget(V start, V end) {
+		int startIndex = graph.indexOf(start);
+		int endIndex = graph.indexOf(end);
+		if(startIndex == -1 || endIndex == -1) {
+			throw new IllegalArgumentException();
+		}
+		Query query = new Query(startIndex, endIndex);
+		ShortestPath<Integer> contracted = query.DoDijkstraToTarget(query.startSlot, query.endSlot);
+		if( !contracted.isFound() ) {
+			return new ShortestPath<>(new ArrayList<V>(), contracted.getCost());
+		}
+
+		List<Integer> slots = contracted.getPath();
+		List<V> path = new ArrayList<>();
+		path.add(graph.vertexAt(startIndex));
+		for(int i = 1; i < slots.size(); i++) {
+			expand(query.vertexOf(slots.get(i - 1)), query.vertexOf(slots.get(i)), path);
+		}
+		return new ShortestPath<>(path, contracted.getCost());
+	}
+
+	/*
+	 * Append the original vertices after "from" up to and including "to".
+	 * They are joined by a corridor (or a piece of one), so walk every
+	 * corridor leading out of "from" and take the cheapest that gets there.
+	 */
+	private void expand(int from, int to, List<V> path) {
+		int[] edgeTargets = new int[Math.max(graph.maxDegree(), 1)];
+		int[] edgeWeights = new int[edgeTargets.length];
+		int count = graph.successors(from, edgeTargets, edgeWeights);
+		int[] firstSteps = Arrays.copyOf(edgeTargets, count);
+		int[] firstWeights = Arrays.copyOf(edgeWeights, count);
+		int bestStep = -1;
+		int bestCost = Integer.MAX_VALUE;
+		for(int e = 0; e < count; e++) {
+			int previous = from;
+			int current = firstSteps[e];
+			int cost = firstWeights[e];
+			while(current != to && keptIndex[current] == -1) {
+				graph.successors(current, edgeTargets, edgeWeights);
+				int step = edgeTargets[0] == previous ? 1 : 0;
+				previous = current;
+				current = edgeTargets[step];
+				cost += edgeWeights[step];
+			}
+			if(current == to && cost < bestCost) {
+				bestStep = e;
+				bestCost = cost;
+			}
+		}
+
+		int previous = from;
+		int current = firstSteps[bestStep];
+		path.add(graph.vertexAt(current));
+		while(current != to) {
+			graph.successors(current, edgeTargets, edgeWeights);
+			int step = edgeTargets[0] == previous ? 1 : 0;
+			previous = current;
+			current = edgeTargets[step];
+			path.add(graph.vertexAt(current));
+		}
+	}
+
+	/*
+	 * The contracted graph as seen by one query: the kept vertices are
+	 * numbered 0 to keptCount - 1, and a start or end inside a corridor
+	 * gets number keptCount or keptCount + 1, with edges to its
+	 * neighbours along the corridor.
+	 */
+	private class Query extends WeightedGraph<Integer> {
+		final int startIndex, endIndex;        // in the original graph
+		final int startSlot, endSlot;
+		final int[] extraFrom = new int[12], extraTo = new int[12], extraWeight = new int[12];
+		int extras;
+		int heaviest = maxWeight;               // the extra edges can be heavier than any contracted edge
+
+		Query(int startIndex, int endIndex) {
+			super(true);
+			this.startIndex = startIndex;
+			this.endIndex = endIndex;
+			startSlot = keptIndex[startIndex] != -1 ? keptIndex[startIndex] : keptCount;
+			if(endIndex == startIndex) {
+				endSlot = startSlot;
+			} else {
+				endSlot = keptIndex[endIndex] != -1 ? keptIndex[endIndex] : keptCount + 1;
+			}
+
+			boolean startInside = startSlot == keptCount;
+			boolean endInside = endSlot == keptCount + 1;
+			if(startInside && endInside && corridorOf[startIndex] == corridorOf[endIndex]) {
+				//both on one corridor: a, then the nearer of the two, then the other, then b
+				boolean startFirst = costFromA[startIndex] < costFromA[endIndex];
+				join(corridorOf[startIndex], startFirst ? startIndex : endIndex, startFirst ? startSlot : endSlot,
+						startFirst ? endIndex : startIndex, startFirst ? endSlot : startSlot);
+			} else {
+				if(startInside) {
+					join(corridorOf[startIndex], startIndex, startSlot, -1, -1);
+				}
+				if(endInside) {
+					join(corridorOf[endIndex], endIndex, endSlot, -1, -1);
+				}
+			}
+		}
+
+		/* Join one or two points inside corridor k, in order along it, to each other and its ends */
+		private void join(int k, int first, int firstSlot, int second, int secondSlot) {
+			int a = keptIndex[corridorA[k]];
+			int b = keptIndex[corridorB[k]];
+			addExtra(a, firstSlot, costFromA[first]);
+			if(second == -1) {
+				addExtra(firstSlot, b, corridorCost[k] - costFromA[first]);
+			} else {
+				addExtra(firstSlot, secondSlot, costFromA[second] - costFromA[first]);
+				addExtra(secondSlot, b, corridorCost[k] - costFromA[second]);
+			}
+		}
+
+		private void addExtra(int u, int v, int weight) {
+			extraFrom[extras] = u;
+			extraTo[extras] = v;
+			extraWeight[extras++] = weight;
+			extraFrom[extras] = v;
+			extraTo[extras] = u;
+			extraWeight[extras++] = weight;
+			heaviest = Math.max(heaviest, weight);
+		}
+
+		/* Original index of a vertex of this query */
+		int vertexOf(int slot) {
+			if(slot < keptCount) {
+				return keptVertices[slot];
+			}
+			return slot == keptCount ? startIndex : endIndex;
+		}
+
+		@Override
+		protected int vertexCount() {
+			return keptCount + 2;
+		}
+
+		@Override
+		protected int indexOf(Integer vertex) {
+			return vertex >= 0 && vertex < keptCount + 2 ? vertex : -1;
+		}
+
+		@Override
+		protected Integer vertexAt(int index) {
+			return index;
+		}
+
+		@Override
+		protected int successors(int index, int[] targets, int[] weights) {
+			int count = 0;
+			if(index < keptCount) {
+				count = offsets[index + 1] - offsets[index];
+				System.arraycopy(CorridorGraph.this.targets, offsets[index], targets, 0, count);
+				System.arraycopy(CorridorGraph.this.weights, offsets[index], weights, 0, count);
+			}
+			for(int e = 0; e < extras; e++) {
+				if(extraFrom[e] == index) {
+					targets[count] = extraTo[e];
+					weights[count++] = extraWeight[e];
+				}
+			}
+			return count;
+		}
+
+		@Override
+		protected int maxDegree() {
+			return maxDegree + 4;             //a corridor that loops back to its kept vertex joins it twice
+		}
+
+		@Override
+		protected int maxWeight() {
+			return heaviest;
+		}
+	}
+}
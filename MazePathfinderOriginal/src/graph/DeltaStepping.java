@@ -0,0 +1,243 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * <P>Delta-stepping: the lowest cost from one vertex to every other,
+ * computed on several threads.  Vertices wait in buckets of width
+ * delta by their cost so far.  The lowest non-empty bucket is emptied
+ * by relaxing the light edges (weight up to delta) of all of its
+ * vertices at once, spread over the tasks of a ForkJoinPool, until no
+ * more vertices fall into it; then the heavy edges of every vertex that
+ * passed through it are relaxed, again all at once.  Costs are lowered
+ * with compareAndSet, so tasks never lock.  The costs are exactly the
+ * ones Dijkstra's algorithm finds.</P>
+ *
+ * <P>Used by WeightedGraph.DoDeltaStepping.  The buckets are only
+ * changed between parallel steps, on the calling thread.</P>
+ */
+class DeltaStepping<V> {
+
+	private static final int INFINITY = Integer.MAX_VALUE;
+	private static final int GRAIN = 1024;         // vertices per task
+
+	private final WeightedGraph<V> graph;
+	private final int delta;
+	private final ForkJoinPool pool;
+	private final AtomicIntegerArray cost;
+	private final int[] relaxedAt;                 // cost of each vertex when its light edges were last relaxed
+	private final int[] queuedAt;                  // cost of each vertex when it was last put in a bucket
+	private final int[] settledIn;                 // bucket each vertex last passed through, + 1
+	private final IntList[] buckets;               // bucket b is buckets[b % buckets.length]
+	private int queued;                            // entries in all of the buckets
+
+	DeltaStepping(WeightedGraph<V> graph, int delta, ForkJoinPool pool) {
+		this.graph = graph;
+		this.delta = delta;
+		this.pool = pool;
+		int n = graph.vertexCount();
+		cost = new AtomicIntegerArray(n);
+		relaxedAt = new int[n];
+		queuedAt = new int[n];
+		settledIn = new int[n];
+		for(int v = 0; v < n; v++) {
+			cost.set(v, INFINITY);
+		}
+		Arrays.fill(relaxedAt, -1);
+		Arrays.fill(queuedAt, -1);
+		//an edge leads at most maxWeight past the bucket it starts in, so the buckets can be reused in a circle
+		buckets = new IntList[graph.maxWeight() / delta + 2];
+		for(int b = 0; b < buckets.length; b++) {
+			buckets[b] = new IntList();
+		}
+	}
+
+	/** A growable list of ints. */
+	private static class IntList {
+		int[] values = new int[16];
+		int size;
+
+		void add(int value) {
+			if(size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+	}
+
+	/*
+	 * Fill in the cost and predecessor of every vertex reachable from start.
+	 * Unreachable vertices get a cost of -1 and a predecessor of -1, and
+	 * start is its own predecessor, as DistanceField expects.
+	 */
+	void run(int start, int[] distance, int[] predecessor) {
+		cost.set(start, 0);
+		enqueue(start);
+		for(int b = 0; queued > 0; b++) {
+			IntList bucket = buckets[b % buckets.length];
+			IntList settled = new IntList();
+			while(bucket.size > 0) {
+				int[] vertices = Arrays.copyOf(bucket.values, bucket.size);
+				queued -= bucket.size;
+				bucket.size = 0;
+				int count = 0;
+				for(int v : vertices) {
+					int c = cost.get(v);
+					if(c / delta == b && relaxedAt[v] != c) {     //skip entries made stale by a lower cost
+						relaxedAt[v] = c;
+						vertices[count++] = v;
+						if(settledIn[v] != b + 1) {
+							settledIn[v] = b + 1;
+							settled.add(v);
+						}
+					}
+				}
+				relaxAll(vertices, count, true);
+			}
+			relaxAll(settled.values, settled.size, false);
+		}
+
+		int n = distance.length;
+		for(int v = 0; v < n; v++) {
+			distance[v] = cost.get(v) == INFINITY ? -1 : cost.get(v);
+		}
+		pool.invoke(new FindPredecessors(distance, predecessor, 0, n));
+		predecessor[start] = start;
+	}
+
+	/* Relax the light or heavy edges of the vertices in parallel, then put every vertex whose cost fell in its bucket */
+	private void relaxAll(int[] vertices, int count, boolean light) {
+		if(count == 0 || (!light && graph.maxWeight() <= delta)) {
+			return;
+		}
+		int[][] improved = new int[(count + GRAIN - 1) / GRAIN][];
+		Relax relax = new Relax(vertices, 0, improved.length, count, light, improved);
+		if(improved.length == 1) {
+			relax.compute();               //too little to be worth handing to the pool
+		} else {
+			pool.invoke(relax);
+		}
+		for(int[] chunk : improved) {
+			for(int i = 1; i <= chunk[0]; i++) {
+				enqueue(chunk[i]);
+			}
+		}
+	}
+
+	private void enqueue(int v) {
+		int c = cost.get(v);
+		if(queuedAt[v] != c) {
+			queuedAt[v] = c;
+			buckets[(c / delta) % buckets.length].add(v);
+			queued++;
+		}
+	}
+
+	/* Relaxes the edges of chunks first to last - 1 of the vertices, splitting the range until it is one chunk */
+	private class Relax extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final int[] vertices;
+		private final int first, last, count;
+		private final boolean light;
+		private final int[][] improved;        // improved[chunk] is {size, vertices whose cost this chunk lowered...}
+
+		Relax(int[] vertices, int first, int last, int count, boolean light, int[][] improved) {
+			this.vertices = vertices;
+			this.first = first;
+			this.last = last;
+			this.count = count;
+			this.light = light;
+			this.improved = improved;
+		}
+
+		@Override
+		protected void compute() {
+			if(last - first > 1) {
+				int middle = (first + last) >>> 1;
+				invokeAll(new Relax(vertices, first, middle, count, light, improved),
+						new Relax(vertices, middle, last, count, light, improved));
+				return;
+			}
+			int[] targets = new int[Math.max(graph.maxDegree(), 1)];
+			int[] weights = new int[targets.length];
+			int[] lowered = new int[64];
+			int size = 0;
+			for(int i = first * GRAIN; i < Math.min((first + 1) * GRAIN, count); i++) {
+				int v = vertices[i];
+				int c = cost.get(v);
+				int edges = graph.successors(v, targets, weights);
+				for(int e = 0; e < edges; e++) {
+					if((weights[e] <= delta) != light) {
+						continue;
+					}
+					int t = targets[e];
+					int newCost = c + weights[e];
+					while(true) {
+						int old = cost.get(t);
+						if(newCost >= old) {
+							break;
+						}
+						if(cost.compareAndSet(t, old, newCost)) {
+							if(size + 1 == lowered.length) {
+								lowered = Arrays.copyOf(lowered, lowered.length * 2);
+							}
+							lowered[++size] = t;
+							break;
+						}
+					}
+				}
+			}
+			lowered[0] = size;
+			improved[first] = lowered;
+		}
+	}
+
+	/*
+	 * Once the costs are final, the predecessor of a vertex is any vertex
+	 * with an edge into it that accounts for its whole cost.  Choosing it
+	 * afterwards keeps it consistent with the cost however the tasks raced.
+	 */
+	private class FindPredecessors extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final int[] distance, predecessor;
+		private final int first, last;
+
+		FindPredecessors(int[] distance, int[] predecessor, int first, int last) {
+			this.distance = distance;
+			this.predecessor = predecessor;
+			this.first = first;
+			this.last = last;
+		}
+
+		@Override
+		protected void compute() {
+			if(last - first > GRAIN * 16) {
+				int middle = (first + last) >>> 1;
+				invokeAll(new FindPredecessors(distance, predecessor, first, middle),
+						new FindPredecessors(distance, predecessor, middle, last));
+				return;
+			}
+			int[] sources = new int[Math.max(graph.maxDegree(), 1)];
+			int[] weights = new int[sources.length];
+			for(int v = first; v < last; v++) {
+				predecessor[v] = -1;
+				if(distance[v] <= 0) {
+					continue;                  //unreachable, or the start
+				}
+				int edges = graph.predecessors(v, sources, weights);
+				for(int e = 0; e < edges; e++) {
+					int u = sources[e];
+					if(distance[u] != -1 && distance[u] + weights[e] == distance[v]) {
+						predecessor[v] = u;
+						break;
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package graph;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * <P>The distance from one source vertex to every vertex of a
+ * WeightedGraph, together with the predecessors needed to rebuild the
+ * path to any of them.  DoDijkstraDistances and DoDeltaStepping fill
+ * it with the lowest cost of each vertex; DoParallelBFS fills it with
+ * the fewest edges to each vertex, ignoring the weights.</P>
+ *
+ * @param <V>
+ */
+public class DistanceField<V> {
+
+	private final WeightedGraph<V> graph;
+	private final int sourceIndex;
+	private final int[] distance;       // indexed like the graph's vertices, -1 if unreachable
+	private final int[] predecessor;
+
+	DistanceField(WeightedGraph<V> graph, int sourceIndex, int[] distance, int[] predecessor) {
+		this.graph = graph;
+		this.sourceIndex = sourceIndex;
+		this.distance = distance;
+		this.predecessor = predecessor;
+	}
+
+	/** @return the vertex all the distances are measured from */
+	public V getSource() {
+		return graph.vertexAt(sourceIndex);
+	}
+
+	/** 
+	 * @param vertex
+	 * @return the distance from the source to the vertex (a cost, or
+	 * a number of edges for DoParallelBFS), or null if it cannot be reached
+	 * @throws IllegalArgumentException if the vertex is not in the graph
+	 */
+	public Integer getDistance(V vertex) {
+		int d = distance[index(vertex)];
+		return d == -1 ? null : d;
+	}
+
+	/** 
+	 * @param vertex
+	 * @return true if there is a path from the source to the vertex
+	 */
+	public boolean isReachable(V vertex) {
+		return distance[index(vertex)] != -1;
+	}
+
+	/** 
+	 * @param vertex
+	 * @return a lowest cost path from the source to the vertex, or an
+	 * empty list if it cannot be reached
+	 */
+	public List<V> getPathTo(V vertex) {
+		LinkedList<V> path = new LinkedList<>();
+		int v = index(vertex);
+		if(distance[v] == -1) {
+			return path;
+		}
+		for(; v != sourceIndex; v = predecessor[v]) {
+			path.addFirst(graph.vertexAt(v));
+		}
+		path.addFirst(graph.vertexAt(sourceIndex));
+		return path;
+	}
+
+	private int index(V vertex) {
+		int index = graph.indexOf(vertex);
+		if(index == -1) {
+			throw new IllegalArgumentException();
+		}
+		return index;
+	}
+}
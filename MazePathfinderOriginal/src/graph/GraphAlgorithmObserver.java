@@ -5,7 +5,7 @@ import java.util.List;
 /**
  * A GraphAlgorithmObserver will register with a WeightedGraph 
  * to let it know that it is "watching".  As algorithms are 
- * carried out on the WeightedGraph (BFS, DFS, Dijkstra), the 
+ * carried out on the WeightedGraph (BFS, DFS, Dijkstra, A*), the 
  * graph will notify the Observer to let it know how the 
  * algorithms are progressing.
  *
@@ -62,4 +62,21 @@ public interface GraphAlgorithmObserver<V> {
 	 * path from start to finish.
 	 */
 	public void notifyDijkstraIsOver(List<V> path);
+	
+	/** Called by the graph to notify this observer that
+	 * a vertex has been taken off the open set and expanded
+	 * during an A* search.  A* is Dijkstra's algorithm guided
+	 * by a heuristic, so it begins with notifyDijkstraHasBegun
+	 * and ends with notifyDijkstraIsOver.  The second parameter
+	 * is the cost of the best path found so far from the
+	 * starting vertex to the expanded one.
+	 * 
+	 * <P>Does nothing unless overridden, so Observers written
+	 * before A* was added still compile.</P>
+	 * 
+	 * @param vertexExpanded
+	 * @param costOfPath
+	 */
+	public default void notifyAStarVertexExpanded(V vertexExpanded, Integer costOfPath) {
+	}
 }
\ No newline at end of file
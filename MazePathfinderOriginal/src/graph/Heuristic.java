@@ -0,0 +1,25 @@
+package graph;
+
+/**
+ * <P>A Heuristic guides the A* search in a WeightedGraph.  It
+ * estimates the cost of the cheapest path from one vertex to
+ * another without looking at the graph.</P>
+ * 
+ * <P>For A* to return an optimal path the estimate must be
+ * "admissible", meaning it is never larger than the real cost.
+ * A heuristic that always returns 0 turns A* into Dijkstra's
+ * algorithm.</P>
+ *
+ * @param <V>
+ */
+public interface Heuristic<V> {
+
+	/** Estimate the cost of the cheapest path from "from" to "to".
+	 * 
+	 * @param from vertex the path starts at
+	 * @param to vertex the path ends at
+	 * @return a non-negative estimate that never overestimates
+	 * the real cost
+	 */
+	public int estimate(V from, V to);
+}
@@ -0,0 +1,58 @@
+package graph;
+
+import maze.Juncture;
+import maze.Maze;
+
+/**
+ * <P>A graph of the same Junctures and passages as MazeGraph, but
+ * nothing is copied out of the Maze.  Every vertex is numbered
+ * y * width + x, and whenever a search asks for the edges of a
+ * vertex they are read straight from the Maze's walls and weights.
+ * Building one takes no time and almost no memory, however large
+ * the maze is.</P>
+ *
+ * <P>The graph is defined entirely by the Maze, so addVertex and
+ * addEdge throw an UnsupportedOperationException.</P>
+ */
+public class ImplicitMazeGraph extends MazeGridGraph {
+
+	private final Maze maze;
+
+	/**
+	 * @param maze the maze whose junctures and open passages
+	 * are the vertices and edges of this graph
+	 */
+	public ImplicitMazeGraph(Maze maze) {
+		super(maze.getMazeWidth(), maze.getMazeHeight());
+		this.maze = maze;
+	}
+
+	@Override
+	int weightToRight(int index) {
+		int x = index % width;
+		int y = index / width;
+		return maze.isWallToRight(x, y) ? 0 : maze.getWeightToRight(x, y);
+	}
+
+	@Override
+	int weightBelow(int index) {
+		int x = index % width;
+		int y = index / width;
+		return maze.isWallBelow(x, y) ? 0 : maze.getWeightBelow(x, y);
+	}
+
+	@Override
+	protected int maxWeight() {
+		return maze.getMaximumWeight();
+	}
+
+	/**
+	 * <P>Returns a heuristic for DoAStar on this maze, the same one
+	 * MazeGraph.manhattanHeuristic returns.</P>
+	 *
+	 * @return an admissible heuristic for this maze
+	 */
+	public Heuristic<Juncture> manhattanHeuristic() {
+		return new ManhattanHeuristic(maze.getMinimumWeight());
+	}
+}
@@ -0,0 +1,203 @@
+package graph;
+
+import java.util.NoSuchElementException;
+
+/**
+ * <P>A binary min-heap of vertex indices (0 to capacity - 1), ordered by
+ * an integer key.  Unlike java.util.PriorityQueue it remembers where
+ * every index lives inside the heap, so decreaseKey runs in O(log n)
+ * instead of requiring a linear remove and re-insert.</P>
+ *
+ * <P>Equal keys are broken by the smaller index, or by the smaller rank
+ * when a tie order has been set, so the extraction order is
+ * deterministic.</P>
+ */
+public class IndexedMinHeap implements IndexedPriorityQueue {
+
+	private int[] heap;        // heap[i] = vertex index stored at heap slot i
+	private int[] position;    // position[v] = heap slot of v, or -1 if v is not in the heap
+	private int[] keys;        // keys[v] = current key of v
+	private int[] order;       // order[v] = rank of v among equal keys, null to rank by index
+	private int size;
+
+	/** Create an empty heap that can hold the indices 0 to capacity - 1.
+	 *
+	 * @param capacity number of distinct indices the heap can hold
+	 */
+	public IndexedMinHeap(int capacity) {
+		heap = new int[capacity];
+		position = new int[capacity];
+		keys = new int[capacity];
+		for(int i = 0; i < capacity; i++) {
+			position[i] = -1;
+		}
+	}
+
+	/** @return true if there are no indices in the heap */
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/** @return the number of indices currently in the heap */
+	public int size() {
+		return size;
+	}
+
+	/** @return true if the index is currently in the heap */
+	@Override
+	public boolean contains(int index) {
+		return position[index] != -1;
+	}
+
+	/** Returns the key the index was last inserted or decreased with.
+	 *
+	 * @param index
+	 * @return key of the index
+	 */
+	public int keyOf(int index) {
+		return keys[index];
+	}
+
+	/** Insert an index which is not already in the heap.
+	 *
+	 * @param index vertex index to add
+	 * @param key priority of the index, smaller comes out first
+	 * @throws IllegalArgumentException if the index is already in the heap
+	 */
+	public void insert(int index, int key) {
+		if(contains(index)) {
+			throw new IllegalArgumentException();
+		}
+		keys[index] = key;
+		heap[size] = index;
+		position[index] = size;
+		size++;
+		siftUp(size - 1);
+	}
+
+	/** Lower the key of an index already in the heap.
+	 *
+	 * @param index vertex index whose key is lowered
+	 * @param key the new key, which must not be larger than the old one
+	 * @throws IllegalArgumentException if the index is not in the heap or
+	 * the key would increase
+	 */
+	public void decreaseKey(int index, int key) {
+		if( !contains(index) || key > keys[index] ) {
+			throw new IllegalArgumentException();
+		}
+		keys[index] = key;
+		siftUp(position[index]);
+	}
+
+	/** Insert the index, or lower its key if it is already in the heap.
+	 *
+	 * @param index
+	 * @param key
+	 */
+	@Override
+	public void insertOrDecrease(int index, int key) {
+		if(contains(index)) {
+			decreaseKey(index, key);
+		} else {
+			insert(index, key);
+		}
+	}
+
+	/** @return the smallest key in the heap, without removing it */
+	@Override
+	public int peekKey() {
+		if(size == 0) {
+			throw new NoSuchElementException();
+		}
+		return keys[heap[0]];
+	}
+
+	/** Remove and return the index with the smallest key.
+	 *
+	 * @return the index with the smallest key
+	 * @throws NoSuchElementException if the heap is empty
+	 */
+	@Override
+	public int extractMin() {
+		if(size == 0) {
+			throw new NoSuchElementException();
+		}
+		int min = heap[0];
+		size--;
+		if(size > 0) {
+			heap[0] = heap[size];
+			position[heap[0]] = 0;
+			siftDown(0);
+		}
+		position[min] = -1;
+		return min;
+	}
+
+	/** Set the order indices with equal keys come out in: the one with
+	 * the smaller order[index] first.  null puts the smaller index first.
+	 * Only allowed while the heap is empty.
+	 *
+	 * @param order rank of every index, or null
+	 * @throws IllegalStateException if the heap is not empty
+	 */
+	void setTieOrder(int[] order) {
+		if(size != 0) {
+			throw new IllegalStateException();
+		}
+		this.order = order;
+	}
+
+	/** Remove every index from the heap.  Only the slots that are in use
+	 * are touched, so this is cheap for a heap that is already mostly empty.
+	 */
+	@Override
+	public void clear() {
+		for(int i = 0; i < size; i++) {
+			position[heap[i]] = -1;
+		}
+		size = 0;
+	}
+
+	private boolean less(int a, int b) {
+		if(keys[a] != keys[b]) {
+			return keys[a] < keys[b];
+		}
+		return order == null ? a < b : order[a] < order[b];
+	}
+
+	private void siftUp(int slot) {
+		int index = heap[slot];
+		while(slot > 0) {
+			int parent = (slot - 1) >>> 1;
+			if( !less(index, heap[parent]) ) {
+				break;
+			}
+			heap[slot] = heap[parent];         //move the parent down one level
+			position[heap[slot]] = slot;
+			slot = parent;
+		}
+		heap[slot] = index;
+		position[index] = slot;
+	}
+
+	private void siftDown(int slot) {
+		int index = heap[slot];
+		int half = size >>> 1;
+		while(slot < half) {
+			int child = 2 * slot + 1;
+			if(child + 1 < size && less(heap[child + 1], heap[child])) {
+				child++;                           //pick the smaller of the two children
+			}
+			if( !less(heap[child], index) ) {
+				break;
+			}
+			heap[slot] = heap[child];
+			position[heap[slot]] = slot;
+			slot = child;
+		}
+		heap[slot] = index;
+		position[index] = slot;
+	}
+}
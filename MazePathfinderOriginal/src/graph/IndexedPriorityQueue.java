@@ -0,0 +1,35 @@
+package graph;
+
+/**
+ * <P>A priority queue of vertex indices (0 to capacity - 1) ordered by
+ * an integer key, which can lower the key of an index it already
+ * holds.  Dijkstra's algorithm only needs these operations, so it can
+ * run on any implementation.</P>
+ */
+public interface IndexedPriorityQueue {
+
+	/** @return true if there are no indices in the queue */
+	public boolean isEmpty();
+
+	/** @return true if the index is currently in the queue */
+	public boolean contains(int index);
+
+	/** Insert the index, or lower its key if it is already in the queue.
+	 *
+	 * @param index vertex index
+	 * @param key priority of the index, smaller comes out first
+	 */
+	public void insertOrDecrease(int index, int key);
+
+	/** @return the smallest key in the queue, without removing it */
+	public int peekKey();
+
+	/** Remove and return the index with the smallest key.
+	 *
+	 * @return the index with the smallest key
+	 */
+	public int extractMin();
+
+	/** Remove every index from the queue. */
+	public void clear();
+}
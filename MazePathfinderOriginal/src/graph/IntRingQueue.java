@@ -0,0 +1,79 @@
+package graph;
+
+import java.util.NoSuchElementException;
+
+/**
+ * <P>A first-in first-out queue of ints kept in a circular array, so
+ * adding and removing never allocates (unless the queue has to grow)
+ * and nothing is boxed.</P>
+ */
+public class IntRingQueue {
+
+	private int[] elements;
+	private int head;          // slot of the first element
+	private int size;
+
+	/** @param capacity number of ints the queue can hold before it has to grow */
+	public IntRingQueue(int capacity) {
+		elements = new int[Math.max(capacity, 1)];
+	}
+
+	/** @return true if the queue holds no ints */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/** @return the number of ints in the queue */
+	public int size() {
+		return size;
+	}
+
+	/** Add an int to the back of the queue.
+	 * 
+	 * @param value
+	 */
+	public void addLast(int value) {
+		if(size == elements.length) {
+			grow();
+		}
+		int tail = head + size;
+		if(tail >= elements.length) {
+			tail -= elements.length;
+		}
+		elements[tail] = value;
+		size++;
+	}
+
+	/** Remove the int at the front of the queue.
+	 * 
+	 * @return the int that has been in the queue longest
+	 * @throws NoSuchElementException if the queue is empty
+	 */
+	public int removeFirst() {
+		if(size == 0) {
+			throw new NoSuchElementException();
+		}
+		int value = elements[head];
+		head++;
+		if(head == elements.length) {
+			head = 0;
+		}
+		size--;
+		return value;
+	}
+
+	/** Remove every int from the queue. */
+	public void clear() {
+		head = 0;
+		size = 0;
+	}
+
+	private void grow() {
+		int[] bigger = new int[elements.length * 2];
+		for(int i = 0; i < size; i++) {
+			bigger[i] = elements[(head + i) % elements.length];
+		}
+		elements = bigger;
+		head = 0;
+	}
+}
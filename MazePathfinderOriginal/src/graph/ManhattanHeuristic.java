@@ -0,0 +1,29 @@
+package graph;
+
+import maze.Juncture;
+
+/**
+ * <P>Heuristic for a grid of Junctures where every move goes up,
+ * down, left or right.  Any path between two junctures needs at
+ * least |dx| + |dy| moves, and every move costs at least the
+ * smallest weight in the maze, so their product never overestimates
+ * the real cost.</P>
+ */
+public class ManhattanHeuristic implements Heuristic<Juncture> {
+
+	private final int minimumWeight;
+
+	/** 
+	 * @param minimumWeight the smallest weight of any edge in the grid
+	 */
+	public ManhattanHeuristic(int minimumWeight) {
+		this.minimumWeight = minimumWeight;
+	}
+
+	@Override
+	public int estimate(Juncture from, Juncture to) {
+		int dx = Math.abs(from.getX() - to.getX());
+		int dy = Math.abs(from.getY() - to.getY());
+		return (dx + dy) * minimumWeight;
+	}
+}
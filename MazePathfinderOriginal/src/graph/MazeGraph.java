@@ -1,5 +1,6 @@
 package graph;
-import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import maze.Juncture;
 import maze.Maze;
@@ -7,9 +8,35 @@ import maze.Maze;
 /** 
  * <P>The MazeGraph is an extension of WeightedGraph.  
  * The constructor converts a Maze into a graph.</P>
+ *
+ * <P>The graph is undirected: every passage is stored once, as the
+ * weight of the passage to the right of or below the juncture it
+ * leads out of (0 when there is a wall), and it is used in both
+ * directions.  So addEdge between two adjacent junctures opens the
+ * passage both ways, and getWeight gives the same answer either way
+ * round.</P>
+ *
+ * <P>This is a change from when MazeGraph kept its junctures in the
+ * HashMaps of WeightedGraph: addVertex used to take any new
+ * Juncture, and addEdge added a one way edge between any two
+ * vertices.  Now the vertices are exactly the junctures of the maze,
+ * so addVertex throws an UnsupportedOperationException, and addEdge
+ * only takes two adjacent junctures.  The grid itself is shared with
+ * ImplicitMazeGraph (see MazeGridGraph); this class adds the copied
+ * weights, a quicker successors over them, and the parallel
+ * constructor.</P>
  */
-public class MazeGraph extends WeightedGraph<Juncture> {
+public class MazeGraph extends MazeGridGraph {
 
+	/* About how many junctures one task of the parallel constructor fills in */
+	private static final int ROWS_TASK_JUNCTURES = 1 << 16;
+
+	private int minimumWeight;    // smallest weight in the maze, used by the heuristic
+	private int maximumWeight;    // largest weight of any passage
+	private final Juncture[] junctures;   // junctures[y * cols + x] is juncture (x, y), which is also its index
+	private final int[] rightWeights;     // weight of the passage to the right of each juncture, 0 for a wall
+	private final int[] downWeights;      // weight of the passage below each juncture, 0 for a wall
+	private volatile int[] tieOrder;      // see dijkstraTieOrder, null until first needed
 
 	/** 
 	 * <P>Construct the MazeGraph using the "maze" contained
@@ -20,13 +47,12 @@ public class MazeGraph extends WeightedGraph<Juncture> {
 	 * defined by its X and Y coordinates, using the usual
 	 * convention of (0, 0) being the upper left corner.</P>
 	 * 
-	 * <P>Each juncture in the maze should be added as a
-	 * vertex to this graph.</P>
+	 * <P>Each juncture in the maze is a vertex of this graph.</P>
 	 * 
-	 * <P>For every pair of adjacent junctures (A and 😎 which
-	 * are not blocked by a wall, two edges should be added:  
-	 * One from A to B, and another from B to A.  The weight
-	 * to be used for these edges is provided by the Maze. 
+	 * <P>For every pair of adjacent junctures (A and B) which
+	 * are not blocked by a wall, there is an edge from A to B
+	 * and another from B to A, stored once.  The weight
+	 * to be used for these edges is provided by the Maze.
 	 * (The Maze methods getMazeWidth and getMazeHeight can
 	 * be used to determine the number of Junctures in the
 	 * maze. The Maze methods called "isWallAbove", "isWallToRight",
@@ -39,48 +65,264 @@ public class MazeGraph extends WeightedGraph<Juncture> {
 	 * adding vertices and edges to this MazeGraph.
 	 */
 	public MazeGraph(Maze maze) {
-		int cols = maze.getMazeWidth();
-		int rows = maze.getMazeHeight();
+		this(maze, 1);
+	}
 
-		for(int r = 0; r < rows; r++) {
-			for(int c = 0; c < cols; c++) {
-				addVertex(new Juncture(c,r)); //(cols, rows) b/c (X,Y)
-			}
+	/**
+	 * <P>Construct the MazeGraph like MazeGraph(maze), reading the maze
+	 * on several threads.  The rows of the maze are split between the
+	 * tasks of a ForkJoinPool, and each task fills in only its own rows
+	 * of the graph, so the threads never wait for each other.  The graph
+	 * is the same whatever the parallelism.</P>
+	 * 
+	 * @param maze to be used as the source of information for
+	 * adding vertices and edges to this MazeGraph.
+	 * @param parallelism number of threads to build the graph on
+	 */
+	public MazeGraph(Maze maze, int parallelism) {
+		this(maze, parallelism, null);
+	}
+
+	/**
+	 * <P>Construct the MazeGraph like MazeGraph(maze, parallelism), on a
+	 * pool the caller keeps, so a program building many graphs starts its
+	 * threads once.  ForkJoinPool.commonPool() will do.</P>
+	 * 
+	 * @param maze to be used as the source of information for
+	 * adding vertices and edges to this MazeGraph.
+	 * @param pool the pool to run the constructor's tasks on
+	 */
+	public MazeGraph(Maze maze, ForkJoinPool pool) {
+		this(maze, pool.getParallelism(), pool);
+	}
+
+	/* With no pool, one is made for the parallelism and shut down again, unless there is only one thread */
+	private MazeGraph(Maze maze, int parallelism, ForkJoinPool pool) {
+		super(maze.getMazeWidth(), maze.getMazeHeight());
+		if(parallelism < 1) {
+			throw new IllegalArgumentException();
 		}
+		minimumWeight = maze.getMinimumWeight();
+		junctures = new Juncture[height * width];
+		rightWeights = new int[height * width];
+		downWeights = new int[height * width];
 
-	
-		Set<Juncture> junctures = weightedGraph.keySet();
-
-		for(Juncture j: junctures) {
-			
-			/**
-			 * For the four if statements the first condition is to check if the vertex is on the edge of the graph
-			 * if it is then there can't be a wall at it's next condition 
-			 * **/
-			if( j.getY() > 0 && !(maze.isWallAbove(j)) ) { //must be greater than 0
-				addEdge(j, new Juncture(j.getX(), j.getY() - 1), maze.getWeightAbove(j));
-			}
-			
-			if( j.getY() <= rows && !(maze.isWallBelow(j)) ) { //looks on above
-				addEdge(j, new Juncture(j.getX(), j.getY() + 1), maze.getWeightBelow(j));
+		if(pool != null) {
+			maximumWeight = pool.invoke(new FillRows(maze, 0, height));
+		} else if(parallelism == 1) {
+			maximumWeight = fillRows(maze, 0, height);
+		} else {
+			ForkJoinPool ownPool = new ForkJoinPool(parallelism);
+			try {
+				maximumWeight = ownPool.invoke(new FillRows(maze, 0, height));
+			} finally {
+				ownPool.shutdown();
 			}
-			
-			if( j.getX() > 0 && !(maze.isWallToLeft(j)) ) { //looks one left
-				addEdge(j, new Juncture(j.getX() - 1, j.getY()), maze.getWeightToLeft(j));
+		}
+	}
+
+	/* Fills in rows first to last - 1, splitting them in half until there are few enough for one task */
+	private class FillRows extends RecursiveTask<Integer> {
+		private static final long serialVersionUID = 1L;
+
+		private final Maze maze;
+		private final int first, last;
+
+		FillRows(Maze maze, int first, int last) {
+			this.maze = maze;
+			this.first = first;
+			this.last = last;
+		}
+
+		@Override
+		protected Integer compute() {
+			if((long)(last - first) * width <= ROWS_TASK_JUNCTURES || last - first == 1) {
+				return fillRows(maze, first, last);
 			}
-			
-			if( j.getX() <= cols && !(maze.isWallToRight(j)) ) { //looks one right
-				addEdge(j, new Juncture(j.getX() + 1, j.getY()), maze.getWeightToRight(j));
+			int middle = (first + last) >>> 1;
+			FillRows top = new FillRows(maze, first, middle);
+			top.fork();
+			int bottom = new FillRows(maze, middle, last).compute();
+			return Math.max(top.join(), bottom);
+		}
+	}
+
+	/**
+	 * Only the passages to the right and below are looked at; the ones above and to the
+	 * left are the same passages seen from the other juncture.  The walls around the
+	 * outside of the maze keep the last column and row from having any.  Returns the
+	 * largest weight of a passage in the rows.
+	 * **/
+	private int fillRows(Maze maze, int first, int last) {
+		int cols = width;
+		int rows = height;
+		int heaviest = 0;
+		for(int r = first; r < last; r++) {
+			for(int c = 0; c < cols; c++) {
+				int index = r * cols + c;
+				junctures[index] = new Juncture(c,r); //(cols, rows) b/c (X,Y)
+				if( r < rows - 1 && !(maze.isWallBelow(c, r)) ) {
+					downWeights[index] = maze.getWeightBelow(c, r);
+					heaviest = Math.max(heaviest, downWeights[index]);
+				}
+				if( c < cols - 1 && !(maze.isWallToRight(c, r)) ) {
+					rightWeights[index] = maze.getWeightToRight(c, r);
+					heaviest = Math.max(heaviest, rightWeights[index]);
+				}
 			}
+		}
+		return heaviest;
+	}
 
+	/**
+	 * <P>Opens the passage between two adjacent junctures, in both
+	 * directions, or changes its weight.  Unlike WeightedGraph.addEdge
+	 * the edge is never one way, and junctures that are not next to
+	 * each other can not be joined.</P>
+	 *
+	 * @throws IllegalArgumentException if either juncture is not in
+	 * the maze, they are not adjacent, or the weight is not positive
+	 */
+	@Override
+	public void addEdge(Juncture from, Juncture to, Integer weight) {
+		if( !(containsVertex(from) && containsVertex(to) && isAdjacent(from, to) && weight > 0) ) {
+			throw new IllegalArgumentException();
 		}
+		int passage = indexOf(Math.min(from.getX(), to.getX()), Math.min(from.getY(), to.getY()));
+		(from.getY() == to.getY() ? rightWeights : downWeights)[passage] = weight;
+		minimumWeight = Math.min(minimumWeight, weight);
+		maximumWeight = Math.max(maximumWeight, weight);
+	}
+
+	@Override
+	int weightToRight(int index) {
+		return rightWeights[index];
+	}
 
+	@Override
+	int weightBelow(int index) {
+		return downWeights[index];
+	}
 
+	/**
+	 * <P>Returns the graph's own Juncture for an id, so a caller
+	 * working with ids does not have to create one.</P>
+	 *
+	 * @param id a juncture id from Juncture.pack
+	 * @return the vertex with those coordinates
+	 * @throws IllegalArgumentException if the juncture is not in the maze
+	 */
+	public Juncture getJuncture(long id) {
+		int index = indexOf(Juncture.unpackX(id), Juncture.unpackY(id));
+		if(index == -1) {
+			throw new IllegalArgumentException();
+		}
+		return junctures[index];
+	}
+
+	/**
+	 * <P>Same as getWeight(Juncture.unpack(from), Juncture.unpack(to)),
+	 * without creating a Juncture.</P>
+	 *
+	 * @param from id of the juncture the edge begins at
+	 * @param to id of the juncture the edge ends at
+	 * @return weight of the edge, or null if there is no edge
+	 * @throws IllegalArgumentException if either juncture is not in the maze
+	 */
+	public Integer getWeight(long from, long to) {
+		return getWeight(getJuncture(from), getJuncture(to));
+	}
+
+	/**
+	 * The same passages as MazeGridGraph.successors, read straight out of the
+	 * arrays.  This is the inner loop of every search, and going through
+	 * weightBelow and weightToRight for each passage made a breadth first search
+	 * of a 1000 x 1000 maze about a third slower.  The walls around the outside
+	 * of the maze leave 0 below the last row and right of the last column.
+	 * **/
+	@Override
+	protected int successors(int index, int[] targets, int[] weights) {
+		int count = 0;
+		if( index >= width && downWeights[index - width] != 0 ) {        //above
+			targets[count] = index - width;
+			weights[count++] = downWeights[index - width];
+		}
+		if( downWeights[index] != 0 ) {                                //below
+			targets[count] = index + width;
+			weights[count++] = downWeights[index];
+		}
+		if( index % width > 0 && rightWeights[index - 1] != 0 ) {      //left
+			targets[count] = index - 1;
+			weights[count++] = rightWeights[index - 1];
+		}
+		if( rightWeights[index] != 0 ) {                               //right
+			targets[count] = index + 1;
+			weights[count++] = rightWeights[index];
+		}
+		return count;
+	}
 
+	@Override
+	protected Juncture vertexAt(int index) {
+		return junctures[index];
+	}
 
+	@Override
+	protected int maxWeight() {
+		return maximumWeight;
 	}
 
+	/**
+	 * The MazeGraph used to keep its junctures in a HashMap, added row by row,
+	 * and Dijkstra took the first juncture of lowest cost in a HashSet copied
+	 * from it, with a Juncture hashing to x + 10000 * y.  A HashSet goes through
+	 * its table one bucket after another, and through a bucket in the order the
+	 * junctures went in, so ranking the junctures by bucket and then by index
+	 * gives the same order without building the table.  (A bucket that grew to
+	 * more than eight junctures was turned into a tree, whose order depended on
+	 * identity hash codes and was never the same twice; those are ranked by
+	 * index too.)
+	 */
+	@Override
+	int[] dijkstraTieOrder() {
+		int[] order = tieOrder;
+		if(order == null) {
+			int count = vertexCount();
+			int tableSize = Integer.highestOneBit(Math.max((int)(count / .75f) + 1, 16) - 1) << 1;  //as new HashSet(collection) sizes it
+			while(count > tableSize / 4 * 3) {
+				tableSize <<= 1;
+			}
+			int[] next = new int[tableSize + 1];     //next[b] is the rank of the next juncture in bucket b
+			for(int index = 0; index < count; index++) {
+				next[bucket(index, tableSize) + 1]++;
+			}
+			for(int b = 0; b < tableSize; b++) {
+				next[b + 1] += next[b];
+			}
+			order = new int[count];
+			for(int index = 0; index < count; index++) {
+				order[index] = next[bucket(index, tableSize)]++;
+			}
+			tieOrder = order;
+		}
+		return order;
+	}
 
+	/* The bucket of a HashMap table that the old Juncture.hashCode put a juncture in */
+	private int bucket(int index, int tableSize) {
+		int hash = index % width + 10000 * (index / width);
+		return (hash ^ (hash >>> 16)) & (tableSize - 1);
+	}
 
-	
-}
\ No newline at end of file
+	/** 
+	 * <P>Returns a heuristic for DoAStar on this maze.  The estimate
+	 * is the Manhattan distance between two junctures times the
+	 * smallest weight in the maze, which never overestimates the
+	 * cost of a real path.</P>
+	 * 
+	 * @return an admissible heuristic for this maze
+	 */
+	public Heuristic<Juncture> manhattanHeuristic() {
+		return new ManhattanHeuristic(minimumWeight);
+	}
+}
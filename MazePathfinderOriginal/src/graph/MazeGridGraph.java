@@ -0,0 +1,133 @@
+package graph;
+
+import maze.Juncture;
+
+/**
+ * <P>The junctures and passages of a maze as a graph, shared by
+ * MazeGraph and ImplicitMazeGraph, which differ only in where the
+ * weights of the passages are kept.  The vertices are the Junctures
+ * of a width by height grid, numbered y * width + x, and every edge
+ * is a passage between two adjacent junctures, used in both
+ * directions with the same weight.  A subclass only says what the
+ * passage to the right of and below each juncture weighs.</P>
+ *
+ * <P>The grid is fixed by the maze, so addVertex throws an
+ * UnsupportedOperationException, and so does addEdge unless the
+ * subclass can change its passages.</P>
+ */
+abstract class MazeGridGraph extends WeightedGraph<Juncture> {
+
+	final int width, height;    // in junctures
+
+	MazeGridGraph(int width, int height) {
+		super(true);           //passages are always open in both directions
+		this.width = width;
+		this.height = height;
+	}
+
+	/**
+	 * @param index of juncture (x, y), which is y * width + x
+	 * @return weight of the passage between (x, y) and (x + 1, y), or 0
+	 * if there is a wall.  Only asked for x &lt; width - 1.
+	 */
+	abstract int weightToRight(int index);
+
+	/**
+	 * @param index of juncture (x, y), which is y * width + x
+	 * @return weight of the passage between (x, y) and (x, y + 1), or 0
+	 * if there is a wall.  Only asked for y &lt; height - 1.
+	 */
+	abstract int weightBelow(int index);
+
+	/**
+	 * Every juncture of the maze is already a vertex.
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public void addVertex(Juncture vertex) {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * @throws UnsupportedOperationException unless the subclass can
+	 * change its passages
+	 */
+	@Override
+	public void addEdge(Juncture from, Juncture to, Integer weight) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean containsVertex(Juncture vertex) {
+		return indexOf(vertex.getX(), vertex.getY()) != -1;
+	}
+
+	@Override
+	public Integer getWeight(Juncture from, Juncture to) {
+		if( !(containsVertex(from) && containsVertex(to)) ) {
+			throw new IllegalArgumentException();
+		}
+		if( !isAdjacent(from, to) ) {
+			return null;
+		}
+		int passage = indexOf(Math.min(from.getX(), to.getX()), Math.min(from.getY(), to.getY()));   //the juncture to the left or above stores it
+		int weight = from.getY() == to.getY() ? weightToRight(passage) : weightBelow(passage);
+		return weight == 0 ? null : weight;
+	}
+
+	/* True if two junctures of the maze are next to each other, so a passage could join them */
+	static boolean isAdjacent(Juncture from, Juncture to) {
+		return Math.abs(to.getX() - from.getX()) + Math.abs(to.getY() - from.getY()) == 1;
+	}
+
+	@Override
+	protected int vertexCount() {
+		return width * height;
+	}
+
+	/* Junctures of the maze are numbered row by row, so no lookup is needed */
+	@Override
+	protected int indexOf(Juncture vertex) {
+		return indexOf(vertex.getX(), vertex.getY());
+	}
+
+	int indexOf(int x, int y) {
+		return x >= 0 && x < width && y >= 0 && y < height ? y * width + x : -1;
+	}
+
+	@Override
+	protected Juncture vertexAt(int index) {
+		return new Juncture(index % width, index / width);
+	}
+
+	@Override
+	protected int successors(int index, int[] targets, int[] weights) {
+		int x = index % width;
+		int count = 0;
+		int weight;
+
+		if( index >= width && (weight = weightBelow(index - width)) != 0 ) {              //above
+			targets[count] = index - width;
+			weights[count++] = weight;
+		}
+		if( index < vertexCount() - width && (weight = weightBelow(index)) != 0 ) {      //below
+			targets[count] = index + width;
+			weights[count++] = weight;
+		}
+		if( x > 0 && (weight = weightToRight(index - 1)) != 0 ) {                        //left
+			targets[count] = index - 1;
+			weights[count++] = weight;
+		}
+		if( x < width - 1 && (weight = weightToRight(index)) != 0 ) {                    //right
+			targets[count] = index + 1;
+			weights[count++] = weight;
+		}
+		return count;
+	}
+
+	@Override
+	protected int maxDegree() {
+		return 4;
+	}
+}
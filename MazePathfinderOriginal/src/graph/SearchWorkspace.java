@@ -0,0 +1,178 @@
+package graph;
+
+/**
+ * <P>All the scratch memory a search needs: which vertices have been
+ * reached or finished, their costs and predecessors, a queue, a
+ * priority queue and a stack.  Passing the same workspace to the
+ * WeightedGraph searches that accept one lets a program answer query
+ * after query without allocating anything, once the workspace has grown
+ * to the size of the graph.</P>
+ *
+ * <P>Instead of clearing its arrays before every search, the workspace
+ * stamps each vertex it touches with the number of the current search.
+ * A vertex whose stamp is from an earlier search counts as unreached,
+ * so starting a new search takes constant time.</P>
+ *
+ * <P>A workspace is not thread safe.  Keep one per thread.</P>
+ */
+public class SearchWorkspace {
+
+	private int[] stamp = new int[0];        // stamp[v] >= epoch once v is reached, == epoch + 1 once finished
+	private int epoch;
+	private int[] cost = new int[0];         // valid only for reached vertices
+	private int[] predecessor = new int[0];
+	private int[] path = new int[0];         // vertex indices of the last path found, start first
+	private int pathLength;
+	private int[] stack = new int[16];       // vertex and the vertex it was pushed from, in pairs
+	private int stackSize;
+	private IntRingQueue queue = new IntRingQueue(16);
+	private IndexedMinHeap heap;
+	private int heapCapacity;
+	private BucketQueue bucketQueue;
+	private int bucketCapacity;
+	private int bucketMaxWeight;
+	int[] targets = new int[0];              // successors of the vertex being expanded
+	int[] weights = new int[0];
+
+	/** Create an empty workspace.  It grows the first time it is used on a graph. */
+	public SearchWorkspace() {
+	}
+
+	/** @return number of vertices on the path found by the last search, 0 if there was none */
+	public int getPathLength() {
+		return pathLength;
+	}
+
+	/**
+	 * @param i position along the path, 0 being the start
+	 * @return the graph's index of the i-th vertex of the path found by the
+	 * last search.  For an ImplicitMazeGraph this is y * width + x.
+	 */
+	public int getPathIndex(int i) {
+		if(i < 0 || i >= pathLength) {
+			throw new IndexOutOfBoundsException();
+		}
+		return path[i];
+	}
+
+	/**
+	 * Get ready for a search of a graph with the given size.  The arrays
+	 * only grow, so this allocates nothing once the workspace is big enough.
+	 */
+	void begin(int vertexCount, int maxDegree) {
+		if(stamp.length < vertexCount) {
+			stamp = new int[vertexCount];
+			cost = new int[vertexCount];
+			predecessor = new int[vertexCount];
+			path = new int[vertexCount];
+			epoch = 0;
+		}
+		if(targets.length < maxDegree) {
+			targets = new int[maxDegree];
+			weights = new int[maxDegree];
+		}
+		if(epoch >= Integer.MAX_VALUE - 2) {     //stamps are about to wrap, so really clear them
+			for(int v = 0; v < stamp.length; v++) {
+				stamp[v] = 0;
+			}
+			epoch = 0;
+		}
+		epoch += 2;
+		pathLength = 0;
+		stackSize = 0;
+		queue.clear();
+	}
+
+	boolean isReached(int v) {
+		return stamp[v] >= epoch;
+	}
+
+	boolean isFinished(int v) {
+		return stamp[v] == epoch + 1;
+	}
+
+	/** Mark v as reached (or reached more cheaply) from the given predecessor. */
+	void reach(int v, int costOfV, int predecessorOfV) {
+		stamp[v] = epoch;
+		cost[v] = costOfV;
+		predecessor[v] = predecessorOfV;
+	}
+
+	void finish(int v) {
+		stamp[v] = epoch + 1;
+	}
+
+	/** @return the cost v was last reached with, or Integer.MAX_VALUE if it has not been reached */
+	int costOf(int v) {
+		return isReached(v) ? cost[v] : Integer.MAX_VALUE;
+	}
+
+	IntRingQueue queue() {
+		return queue;
+	}
+
+	/**
+	 * An empty priority queue for Dijkstra's algorithm, chosen the same way
+	 * as WeightedGraph.newDijkstraQueue does, breaking ties by the given order.
+	 */
+	IndexedPriorityQueue dijkstraQueue(int maxWeight, int[] tieOrder) {
+		if(maxWeight <= WeightedGraph.BUCKET_QUEUE_MAX_WEIGHT) {
+			if(bucketQueue == null || bucketMaxWeight < maxWeight || stamp.length > bucketCapacity) {
+				bucketMaxWeight = Math.max(maxWeight, 1);
+				bucketCapacity = stamp.length;
+				bucketQueue = new BucketQueue(bucketCapacity, bucketMaxWeight);
+			}
+			bucketQueue.clear();
+			bucketQueue.setTieOrder(tieOrder);
+			return bucketQueue;
+		}
+		if(heap == null || stamp.length > heapCapacity) {
+			heapCapacity = stamp.length;
+			heap = new IndexedMinHeap(heapCapacity);
+		}
+		heap.clear();
+		heap.setTieOrder(tieOrder);
+		return heap;
+	}
+
+	void push(int v, int from) {
+		if(stackSize == stack.length) {
+			int[] bigger = new int[stack.length * 2];
+			System.arraycopy(stack, 0, bigger, 0, stackSize);
+			stack = bigger;
+		}
+		stack[stackSize++] = v;
+		stack[stackSize++] = from;
+	}
+
+	boolean isStackEmpty() {
+		return stackSize == 0;
+	}
+
+	/** Pop a pair off the stack.  The vertex is returned, and the vertex it was pushed from is left in poppedFrom(). */
+	int pop() {
+		stackSize -= 2;
+		return stack[stackSize];
+	}
+
+	int poppedFrom() {
+		return stack[stackSize + 1];
+	}
+
+	/** Record the path to end by walking the predecessors back to start. */
+	void tracePath(int start, int end) {
+		pathLength = 0;
+		if( !isReached(end) ) {
+			return;
+		}
+		for(int v = end; v != start; v = predecessor[v]) {
+			path[pathLength++] = v;
+		}
+		path[pathLength++] = start;
+		for(int i = 0, j = pathLength - 1; i < j; i++, j--) {    //reverse so the start comes first
+			int swap = path[i];
+			path[i] = path[j];
+			path[j] = swap;
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package graph;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <P>The answer to a point-to-point shortest path query: the lowest
+ * cost sequence of vertices from the starting vertex to the ending
+ * vertex, and its total cost.</P>
+ *
+ * @param <V>
+ */
+public class ShortestPath<V> {
+
+	private final List<V> path;
+	private final int cost;
+
+	/** 
+	 * @param path vertices from start to end, or an empty list if end
+	 * cannot be reached
+	 * @param cost total weight of the edges along the path
+	 */
+	ShortestPath(List<V> path, int cost) {
+		this.path = Collections.unmodifiableList(path);
+		this.cost = cost;
+	}
+
+	/** @return true if the ending vertex could be reached */
+	public boolean isFound() {
+		return !path.isEmpty();
+	}
+
+	/** @return the vertices along the path, beginning with the starting
+	 * vertex and ending with the ending vertex (empty if there is no path) */
+	public List<V> getPath() {
+		return path;
+	}
+
+	/** @return the total weight of the path, or -1 if there is no path */
+	public int getCost() {
+		return isFound() ? cost : -1;
+	}
+
+	public String toString() {
+		return isFound() ? cost + " " + path : "no path";
+	}
+}
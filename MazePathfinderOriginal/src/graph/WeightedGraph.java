@@ -2,11 +2,19 @@
 package graph;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
-import java.util.Set;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * <P>This class represents a general "directed graph", which could 
@@ -18,20 +26,37 @@ import java.util.Set;
  * 
  * <P>The weights will always be non-negative integers.</P>
  * 
- * <P>The WeightedGraph will be capable of performing three algorithms:
- * Depth-First-Search, Breadth-First-Search, and Djikatra's.</P>
+ * <P>The WeightedGraph will be capable of performing four algorithms:
+ * Depth-First-Search, Breadth-First-Search, Djikatra's and A*.</P>
  * 
  * <P>The Weighted Graph will maintain a collection of 
  * "GraphAlgorithmObservers", which will be notified during the
  * performance of the graph algorithms to update the observers
  * on how the algorithms are progressing.</P>
+ * 
+ * <P>The algorithms never change the graph, and everything they
+ * need while running lives in local variables, so one graph can
+ * answer any number of searches, including searches running on
+ * several threads at the same time.  Vertices and edges must not
+ * be added while a search is running.  Observers are told about
+ * every running search, so with several threads their callbacks
+ * are interleaved.</P>
  */
 public class WeightedGraph<V> {
 
 
 
 	HashMap<V,HashMap<V,Integer>> weightedGraph;
+	HashMap<V,HashMap<V,Integer>> reverseGraph;  // to ---> { from ---> weight }, null when the graph is symmetric
+	ArrayList<V> vertexList;            // vertexList.get(i) is the vertex with index i
+	HashMap<V,Integer> vertexIds;       // reverse of vertexList, used by the heap based algorithms
 	private final int INFINITY = (int)Double.POSITIVE_INFINITY; //used in disktras algo
+	private int maxWeight;                                        // largest weight ever passed to addEdge
+	private int maxDegree;                                        // most edges into or out of any one vertex
+	private volatile int[] dijkstraOrder;                         // see dijkstraTieOrder, null until first needed
+
+	/** Dijkstra uses a BucketQueue instead of a heap when no edge is heavier than this. */
+	static final int BUCKET_QUEUE_MAX_WEIGHT = 64;
 
 
 	private Collection<GraphAlgorithmObserver<V>> observerList;
@@ -43,8 +68,25 @@ public class WeightedGraph<V> {
 	 * the collection of GraphAlgorithmObservers (observerList).
 	 */
 	public WeightedGraph() {
+		this(false);
+	}
+
+	/** Initialize an empty graph.  A subclass that always adds every
+	 * edge in both directions with the same weight (like MazeGraph)
+	 * can pass true, and the graph will use its own edges as the
+	 * reverse edges instead of storing a second copy of them.
+	 * 
+	 * @param symmetric true if every edge A-B will have a matching
+	 * edge B-A of the same weight
+	 */
+	protected WeightedGraph(boolean symmetric) {
 		weightedGraph = new HashMap<>(); //initialize with empty hashmap
-		observerList = new ArrayList<GraphAlgorithmObserver<V>>();
+		if( !symmetric ) {
+			reverseGraph = new HashMap<>();
+		}
+		vertexList = new ArrayList<>();
+		vertexIds = new HashMap<>();
+		observerList = new CopyOnWriteArrayList<GraphAlgorithmObserver<V>>(); //safe to add observers while a search is notifying
 	}
 
 	/** Add a GraphAlgorithmObserver to the collection maintained
@@ -56,6 +98,15 @@ public class WeightedGraph<V> {
 		observerList.add(observer);
 	}
 
+	/** Remove a GraphAlgorithmObserver from the collection maintained
+	 * by this graph (observerList).  Does nothing if it was never added.
+	 * 
+	 * @param observer
+	 */
+	public void removeObserver(GraphAlgorithmObserver<V> observer) {
+		observerList.remove(observer);
+	}
+
 	/** Add a vertex to the graph.  If the vertex is already in the
 	 * graph, throw an IllegalArgumentException.
 	 * 
@@ -73,6 +124,12 @@ public class WeightedGraph<V> {
 
 		HashMap<V,Integer> adjacentVertices = new HashMap<>();
 		weightedGraph.put(vertex, adjacentVertices);          //map new vertex to a new empty HashMap
+		if(reverseGraph != null) {
+			reverseGraph.put(vertex, new HashMap<>());
+		}
+		vertexIds.put(vertex, vertexList.size());             //vertices are numbered 0, 1, 2... in the order they are added
+		vertexList.add(vertex);
+		dijkstraOrder = null;
 	}
 
 	/** Searches for a given vertex.
@@ -112,6 +169,12 @@ public class WeightedGraph<V> {
 		// from ------> (.put) { to ---> weight }
 		//take weightedGraph HashMap, put the parameter (to, weight) into it's Value
 		weightedGraph.get(from).put(to, weight);   
+		maxDegree = Math.max(maxDegree, weightedGraph.get(from).size());
+		if(reverseGraph != null) {
+			reverseGraph.get(to).put(from, weight);         //also remember the edge backwards for the bidirectional searches
+			maxDegree = Math.max(maxDegree, reverseGraph.get(to).size());
+		}
+		maxWeight = Math.max(maxWeight, weight);
 
 	}
 
@@ -139,6 +202,100 @@ public class WeightedGraph<V> {
 		return weightedGraph.get(from).get(to); 
 	}
 
+	/*
+	 * The search algorithms below never touch weightedGraph directly.  They
+	 * number the vertices 0 to vertexCount() - 1 and ask for edges through the
+	 * methods in this section, so a subclass that stores its edges some other
+	 * way (see ImplicitMazeGraph) only has to override these.
+	 */
+
+	/** @return the number of vertices in the graph */
+	protected int vertexCount() {
+		return vertexList.size();
+	}
+
+	/** 
+	 * @param vertex
+	 * @return the index (0 to vertexCount() - 1) of the vertex, or -1
+	 * if it is not in the graph
+	 */
+	protected int indexOf(V vertex) {
+		Integer index = vertexIds.get(vertex);
+		return index == null ? -1 : index;
+	}
+
+	/** 
+	 * @param index a number from 0 to vertexCount() - 1
+	 * @return the vertex with that index
+	 */
+	protected V vertexAt(int index) {
+		return vertexList.get(index);
+	}
+
+	/** 
+	 * Copies the edges leading out of a vertex into two arrays, which
+	 * must have room for at least maxDegree() entries.
+	 * 
+	 * @param index the vertex whose edges are wanted
+	 * @param targets receives the index of the vertex each edge leads to
+	 * @param weights receives the weight of each edge
+	 * @return the number of edges copied
+	 */
+	protected int successors(int index, int[] targets, int[] weights) {
+		return copyEdges(weightedGraph.get(vertexList.get(index)), targets, weights);
+	}
+
+	/** 
+	 * Like successors, but for the edges leading INTO the vertex.  Used
+	 * by the bidirectional searches.
+	 * 
+	 * @param index the vertex whose incoming edges are wanted
+	 * @param targets receives the index of the vertex each edge comes from
+	 * @param weights receives the weight of each edge
+	 * @return the number of edges copied
+	 */
+	protected int predecessors(int index, int[] targets, int[] weights) {
+		if(reverseGraph == null) {
+			return successors(index, targets, weights);      //symmetric graph, the edges out are the edges in
+		}
+		return copyEdges(reverseGraph.get(vertexList.get(index)), targets, weights);
+	}
+
+	/** @return the largest number of edges into or out of any vertex */
+	protected int maxDegree() {
+		return maxDegree;
+	}
+
+	/** @return an upper bound on the weight of every edge in the graph */
+	protected int maxWeight() {
+		return maxWeight;
+	}
+
+	private int copyEdges(HashMap<V,Integer> edges, int[] targets, int[] weights) {
+		int count = 0;
+		for(Map.Entry<V,Integer> edge: edges.entrySet()) {
+			targets[count] = vertexIds.get(edge.getKey());
+			weights[count] = edge.getValue();
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Used by the searches to turn the vertices they are given into indices.
+	 * 
+	 * @param vertex
+	 * @return the index of the vertex
+	 * @throws IllegalArgumentException if the vertex is not in the graph
+	 * **/
+	private int requireIndex(V vertex) {
+		int index = indexOf(vertex);
+		if(index == -1) {
+			throw new IllegalArgumentException();
+		}
+		return index;
+	}
+
 	/** 
 	 * <P>This method will perform a Breadth-First-Search on the graph.
 	 * The search will begin at the "start" vertex and conclude once
@@ -164,55 +321,192 @@ public class WeightedGraph<V> {
 	 * is visited
 	 */
 	public void DoBFS(V start, V end) {
+		int startIndex = requireIndex(start);       // checked before any observer hears the search has begun
+		int endIndex = requireIndex(end);
+
 		for(GraphAlgorithmObserver<V> x: observerList) {//                   (1)
 			x.notifyBFSHasBegun();
 		}
 
 		//Beginning of Breadth-First Search
-		HashSet<V> visitedSet = new HashSet<>();
-		LinkedList<V> queue = new LinkedList<>();   // **note: add to back and remove from front
-		Set<V> adjacentVertices;                    // used to store each successor of nextElem
+		BitSet discoveredSet = new BitSet(vertexCount()); // bit i is set once vertex i has been put in the queue
+		IntRingQueue queue = new IntRingQueue(vertexCount()); // **note: add to back and remove from front
+		int[] adjacentVertices = new int[maxDegree()];    // used to store each successor of nextElem
+		int[] weights = new int[maxDegree()];
 		boolean endVerticeVisited = false;          // used to track if we had visited the "end" element passed in
 
 
-		queue.addLast(start);                       // add 1st vertex to queue
+		queue.addLast(startIndex);                  // add 1st vertex to queue
+		discoveredSet.set(startIndex);
 
 		while( !queue.isEmpty() && !endVerticeVisited ) {// while queue isn't empty & "end" has not been visited yet
 
-			V nextElem = queue.removeFirst();              // removes nextElement from front of queue
+			int nextElem = queue.removeFirst();            // removes nextElement from front of queue
 
-			if(nextElem.equals(end)) {
+			if(nextElem == endIndex) {
 				endVerticeVisited = true;                  //we've reached the end vertex
 			}
 
-			if( !(visitedSet.contains(nextElem)) ) {       // if queue doesn't contain the nextElement from the front
-				
-				//VISIT element
-				for(GraphAlgorithmObserver<V> x: observerList) {//            (2)	
-					x.notifyVisit(nextElem);
+			//VISIT element.  Every vertex goes into the queue only once, so it
+			//has not been visited before
+			for(GraphAlgorithmObserver<V> x: observerList) {//            (2)	
+				x.notifyVisit(vertexAt(nextElem));
+			}
+
+			int count = successors(nextElem, adjacentVertices, weights); 
+			// all successors of nextElem
+			for(int i = 0; i < count; i++) {             // for each successor of nextElement
+				if( !discoveredSet.get(adjacentVertices[i]) ){       
+					discoveredSet.set(adjacentVertices[i]);
+					queue.addLast(adjacentVertices[i]);  // if the successor was never in the queue add it
 				}
+			}
 
 
-				visitedSet.add(nextElem);                    // add nextElement to the visitedSet
+		}
 
-				adjacentVertices = weightedGraph.get(nextElem).keySet(); 
-				// all successors of nextElem
-				for(V successor: adjacentVertices) {         // for each successor of nextElement
-					if( !queue.contains(successor) ){       
-						queue.addLast(successor);;           // if queue does not have the successor yet add to queue
-					}
-				}
+		for(GraphAlgorithmObserver<V> x: observerList) {//                   (3)
+			x.notifySearchIsOver();
+		}
 
-			} 
 
+	}
 
+	/** 
+	 * <P>A Breadth-First-Search from "start" to every vertex it can reach,
+	 * spread over several threads.  The search goes one level at a time:
+	 * the vertices of the current level (the frontier) are split between
+	 * the tasks of a ForkJoinPool, and each task claims the unvisited
+	 * successors of its vertices with an atomic update of a shared
+	 * visited bitset, so every vertex joins the next level exactly
+	 * once.</P>
+	 * 
+	 * <P>The distances are numbers of edges (hops), the same as a
+	 * sequential BFS finds, whatever the parallelism.  When two vertices
+	 * of a level lead to the same vertex, either may become its
+	 * predecessor, so getPathTo returns a fewest-hops path but not always
+	 * the same one.  Observers are not notified.</P>
+	 * 
+	 * @param start vertex where search begins
+	 * @param parallelism number of threads to search with
+	 * @return the number of hops from start to every vertex
+	 */
+	public DistanceField<V> DoParallelBFS(V start, int parallelism) {
+		if(parallelism < 1) {
+			throw new IllegalArgumentException();
+		}
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			return DoParallelBFS(start, pool);
+		} finally {
+			pool.shutdown();
 		}
+	}
 
-		for(GraphAlgorithmObserver<V> x: observerList) {//                   (3)
-			x.notifySearchIsOver();
+	/** 
+	 * <P>The same search as DoParallelBFS(start, parallelism), run on a
+	 * pool the caller keeps, so a program making many searches starts its
+	 * threads once.  ForkJoinPool.commonPool() will do.</P>
+	 * 
+	 * @param start vertex where search begins
+	 * @param pool the pool to run the search's tasks on
+	 * @return the number of hops from start to every vertex
+	 */
+	public DistanceField<V> DoParallelBFS(V start, ForkJoinPool pool) {
+		int startIndex = requireIndex(start);
+		int[] hops = new int[vertexCount()];
+		int[] predecessor = new int[vertexCount()];
+		Arrays.fill(hops, -1);
+		Arrays.fill(predecessor, -1);
+		AtomicLongArray visited = new AtomicLongArray((vertexCount() + 63) >>> 6);
+		visited.set(startIndex >>> 6, 1L << startIndex);
+		hops[startIndex] = 0;
+		predecessor[startIndex] = startIndex;
+
+		int[] frontier = new int[] {startIndex};
+		int frontierSize = 1;
+		int[] next = new int[vertexCount()];
+		AtomicInteger nextSize = new AtomicInteger();
+		for(int level = 1; frontierSize > 0; level++) {
+			nextSize.set(0);
+			pool.invoke(new BFSLevel(frontier, 0, frontierSize, level, next, nextSize, visited, hops, predecessor));
+			int[] swap = frontier.length == next.length ? frontier : new int[next.length];
+			frontier = next;
+			next = swap;
+			frontierSize = nextSize.get();
+		}
+		return new DistanceField<>(this, startIndex, hops, predecessor);
+	}
+
+	/* Expands frontier[first] to frontier[last - 1] into the next level, splitting the range while it is large */
+	private class BFSLevel extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private static final int FRONTIER_GRAIN = 1024;
+
+		private final int[] frontier;
+		private final int first, last, level;
+		private final int[] next;
+		private final AtomicInteger nextSize;
+		private final AtomicLongArray visited;
+		private final int[] hops, predecessor;
+
+		BFSLevel(int[] frontier, int first, int last, int level, int[] next, AtomicInteger nextSize,
+				AtomicLongArray visited, int[] hops, int[] predecessor) {
+			this.frontier = frontier;
+			this.first = first;
+			this.last = last;
+			this.level = level;
+			this.next = next;
+			this.nextSize = nextSize;
+			this.visited = visited;
+			this.hops = hops;
+			this.predecessor = predecessor;
 		}
 
+		@Override
+		protected void compute() {
+			if(last - first > FRONTIER_GRAIN) {
+				int middle = (first + last) >>> 1;
+				invokeAll(new BFSLevel(frontier, first, middle, level, next, nextSize, visited, hops, predecessor),
+						new BFSLevel(frontier, middle, last, level, next, nextSize, visited, hops, predecessor));
+				return;
+			}
+			int[] adjacentVertices = new int[maxDegree()];
+			int[] weights = new int[maxDegree()];
+			int[] claimed = new int[64];          // vertices this task adds to the next level, copied there in one go
+			int count = 0;
+			for(int i = first; i < last; i++) {
+				int u = frontier[i];
+				int successors = successors(u, adjacentVertices, weights);
+				for(int j = 0; j < successors; j++) {
+					int v = adjacentVertices[j];
+					if(claim(v)) {
+						hops[v] = level;
+						predecessor[v] = u;
+						if(count == claimed.length) {
+							claimed = Arrays.copyOf(claimed, count * 2);
+						}
+						claimed[count++] = v;
+					}
+				}
+			}
+			System.arraycopy(claimed, 0, next, nextSize.getAndAdd(count), count);
+		}
 
+		/* Set the visited bit of v, returning false if another task (or this one) already had */
+		private boolean claim(int v) {
+			int word = v >>> 6;
+			long bit = 1L << v;
+			while(true) {
+				long old = visited.get(word);
+				if((old & bit) != 0) {
+					return false;
+				}
+				if(visited.compareAndSet(word, old, old | bit)) {
+					return true;
+				}
+			}
+		}
 	}
 
 	/** 
@@ -241,41 +535,42 @@ public class WeightedGraph<V> {
 	 */
 	public void DoDFS(V start, V end) {
 		//Beginning of Depth-First Search
-		HashSet<V> visitedSet = new HashSet<>();
-		LinkedList<V> stack = new LinkedList<>();   						// **note: add to front and remove from front
-		Set<V> adjacentVertices;                    						// used to store each successor of nextElem
+		boolean[] visitedSet = new boolean[vertexCount()];					// visitedSet[i] is true once vertex i is visited
+		LinkedList<Integer> stack = new LinkedList<>();   					// **note: add to front and remove from front
+		int[] adjacentVertices = new int[maxDegree()];    					// used to store each successor of nextElem
+		int[] weights = new int[maxDegree()];
+		int endIndex = requireIndex(end);
 		boolean endVerticeVisited = false;          						// used to track if we had visited the "end" element passed in
 
 
-		stack.addFirst(start);                       						// add 1st vertex to Stack
+		stack.addFirst(requireIndex(start));         						// add 1st vertex to Stack
 		
 		for(GraphAlgorithmObserver<V> x: observerList) {				//(1)
 			x.notifyDFSHasBegun();
 		}
 		
 		while( !stack.isEmpty() && !endVerticeVisited ) {					// while stack isn't empty & "end" has not been visited yet
-			V nextElem = stack.removeFirst();              					// removes nextElement from front of queue
+			int nextElem = stack.removeFirst();            					// removes nextElement from front of queue
 
 
-			if(nextElem.equals(end)) {
+			if(nextElem == endIndex) {
 				endVerticeVisited = true;                  					//we've reached the end vertex
 			}
 
 			
-			if( !(visitedSet.contains(nextElem)) ) {       					// if stack doesn't contain the nextElement from the front
-				System.out.println(nextElem);
+			if( !visitedSet[nextElem] ) {                  					// if stack doesn't contain the nextElement from the front
 				//VISIT element
 				for(GraphAlgorithmObserver<V> x: observerList) {		//(2)	
-					x.notifyVisit(nextElem);
+					x.notifyVisit(vertexAt(nextElem));
 				}
 
-				visitedSet.add(nextElem);             						// add nextElement to the visitedSet
+				visitedSet[nextElem] = true;         						// add nextElement to the visitedSet
 
-				adjacentVertices = weightedGraph.get(nextElem).keySet(); 
+				int count = successors(nextElem, adjacentVertices, weights); 
 
-				for(V successor: adjacentVertices) {  						// for each successor of nextElement
-					if( !visitedSet.contains(successor) ){       
-						stack.addFirst(successor);             				// if stack does not have the successor yet add to queue
+				for(int i = 0; i < count; i++) {      						// for each successor of nextElement
+					if( !visitedSet[adjacentVertices[i]] ){       
+						stack.addFirst(adjacentVertices[i]);   				// if stack does not have the successor yet add to queue
 					}
 				}
 
@@ -296,8 +591,21 @@ public class WeightedGraph<V> {
 	 * vertex.</P>
 	 * 
 	 * <P>The algorithm DOES NOT terminate when the "end" vertex
-	 * is reached.  It will continue until EVERY vertex in the
-	 * graph has been added to the finished set.</P>
+	 * is reached.  It will continue until EVERY vertex reachable
+	 * from "start" has been added to the finished set.</P>
+	 * 
+	 * <P>The unfinished vertices are kept in an IndexedMinHeap keyed
+	 * by their cost, so picking the next vertex to finish and lowering
+	 * a vertex's cost are both O(log V), for O((V + E) log V) overall.
+	 * When every edge weight is at most BUCKET_QUEUE_MAX_WEIGHT (mazes
+	 * only use 1 to 9) a BucketQueue is used instead, which does both in
+	 * nearly constant time.</P>
+	 * 
+	 * <P>When several unfinished vertices share the lowest cost, they
+	 * are finished in the order of a HashSet of the graph's vertices
+	 * (see dijkstraTieOrder), as the original table scan did, so the
+	 * notifications come in the same order and the same path is
+	 * found as before, on either queue.</P>
 	 * 
 	 * <P>Before the algorithm begins, this method goes through           (1)
 	 * the collection of Observers, calling notifyDijkstraHasBegun 
@@ -322,170 +630,737 @@ public class WeightedGraph<V> {
 	 * 
 	 * @param start vertex where algorithm will start
 	 * @param end special vertex used as the end of the path 
-	 * reported to observers via the notifyDijkstraIsOver method.
+	 * reported to observers via the notifyDijkstraIsOver method.  If
+	 * "end" cannot be reached the reported path is empty.
 	 * 
-	 * HashMap<V,Object[]> table:
+	 * Dijkstra's table, one column per vertex index:
 	 * 
-	 * A ---> [lowestCost|Predecessor]
-	 * B ---> ...
-	 * C ---> [infinity|tbd]
-	 * D ---> ...
-	 * E ---> [2|H]
-	 * F ---> ...
-	 * G ---> etc.
-	 * H --->
-	 * I --->
-	 * J --->
-	 * K --->
+	 *             A    B    C    D    E    ...
+	 * lowestCost  0    5   inf   9    2
+	 * predecessor A    E   tbd   B    A
+	 * 
+	 * kept as two int arrays so nothing is boxed while it is filled in.
 	 * 
 	 */
 	public void DoDijsktra(V start, V end) {
 		for(GraphAlgorithmObserver<V> x: observerList) {//                   (1)
 			x.notifyDijkstraHasBegun();
 		}
-		
-		
-		
 
-		// INITIALIZING THE TABLE AND MAKING IT EMPTY----------------------
-		HashMap<V,Object[]> table = new HashMap<>();  							// A----> emptyArray
-		Object[] emptyArr; 														//emptyArray [infinity|tbd]
-		
-		Set<V> unfinishedVertices = new HashSet(weightedGraph.keySet()); 		//initialize the Dijsktra table with emptyArray ex. C ---> [infinity|tbd]
-			
-		
-		for(V v: unfinishedVertices) {
-			emptyArr = new Object[2]; 											//no privacy leak
-			emptyArr[0] = INFINITY;  											//initializes with ex C ---> [infinity|tbd]
-			emptyArr[1] = null;
-			table.put(v, emptyArr); 											//put all unfinished vertices into the Dijsktra's table
+		int startIndex = requireIndex(start);
+		int endIndex = requireIndex(end);
+		int[] lowestCost = new int[vertexCount()];
+		int[] predecessors = new int[vertexCount()];
+		dijkstra(startIndex, -1, lowestCost, predecessors);                  //                   (2)
+
+		//shortest path from start to end
+		List<V> path = tablePath(predecessors, startIndex, endIndex);
+
+		for(GraphAlgorithmObserver<V> x: observerList) {//                   (3)
+			x.notifyDijkstraIsOver(path);
+		}
+
+	}
+
+	/** 
+	 * <P>Dijkstra's algorithm for a single query: the same as DoDijsktra,
+	 * except that it stops as soon as the "end" vertex has been added to
+	 * the finished set.  The cost of "end" can no longer change at that
+	 * point, so finishing the rest of the graph would be wasted work.</P>
+	 * 
+	 * <P>Observers are notified exactly like in DoDijsktra; the last call
+	 * to notifyDijkstraVertexFinished is for the "end" vertex.</P>
+	 * 
+	 * @param start vertex where algorithm will start
+	 * @param end the algorithm terminates once this vertex is finished
+	 * @return the lowest cost path from start to end and its cost
+	 */
+	public ShortestPath<V> DoDijkstraToTarget(V start, V end) {
+		for(GraphAlgorithmObserver<V> x: observerList) {
+			x.notifyDijkstraHasBegun();
+		}
+
+		int startIndex = requireIndex(start);
+		int endIndex = requireIndex(end);
+		int[] lowestCost = new int[vertexCount()];
+		int[] predecessors = new int[vertexCount()];
+		dijkstra(startIndex, endIndex, lowestCost, predecessors);
+		List<V> path = tablePath(predecessors, startIndex, endIndex);
+
+		for(GraphAlgorithmObserver<V> x: observerList) {
+			x.notifyDijkstraIsOver(path);
+		}
+		return new ShortestPath<>(path, lowestCost[endIndex]);
+	}
+
+	/** 
+	 * <P>Dijkstra's algorithm without an "end" vertex: every vertex
+	 * reachable from "start" is finished, and the lowest cost of
+	 * reaching each of them is returned.</P>
+	 * 
+	 * <P>Observers are notified like in DoDijsktra, but as there is no
+	 * "end" vertex, notifyDijkstraIsOver is passed an empty path.</P>
+	 * 
+	 * @param start vertex all the costs are measured from
+	 * @return the cost of, and path to, every vertex in the graph
+	 */
+	public DistanceField<V> DoDijkstraDistances(V start) {
+		for(GraphAlgorithmObserver<V> x: observerList) {
+			x.notifyDijkstraHasBegun();
+		}
+
+		int startIndex = requireIndex(start);
+		int[] distance = new int[vertexCount()];
+		int[] predecessor = new int[vertexCount()];
+		dijkstra(startIndex, -1, distance, predecessor);
+		for(int v = 0; v < distance.length; v++) {
+			if(predecessor[v] == -1) {
+				distance[v] = -1;                  //DistanceField marks unreachable vertices with -1
+			}
+		}
+
+		for(GraphAlgorithmObserver<V> x: observerList) {
+			x.notifyDijkstraIsOver(new LinkedList<V>());
+		}
+		return new DistanceField<>(this, startIndex, distance, predecessor);
+	}
+
+	/** 
+	 * <P>The same distances as DoDijkstraDistances, computed on several
+	 * threads by delta-stepping (see DeltaStepping), with a bucket width
+	 * of half the largest edge weight, rounded up.  For a Maze (weights 1
+	 * to 9) that is 5: edges of weight 1 to 5 are light and relaxed over
+	 * and over while a bucket empties, and edges of weight 6 to 9 are
+	 * heavy and relaxed once per bucket.</P>
+	 * 
+	 * @param start vertex all the costs are measured from
+	 * @param parallelism number of threads to use
+	 * @return the cost of, and a lowest cost path to, every vertex in the graph
+	 */
+	public DistanceField<V> DoDeltaStepping(V start, int parallelism) {
+		return DoDeltaStepping(start, defaultDelta(), parallelism);
+	}
+
+	/** 
+	 * <P>The same as DoDeltaStepping(start, parallelism), run on a pool
+	 * the caller keeps, so a program making many searches starts its
+	 * threads once.  ForkJoinPool.commonPool() will do.</P>
+	 * 
+	 * @param start vertex all the costs are measured from
+	 * @param pool the pool to run the search's tasks on
+	 * @return the cost of, and a lowest cost path to, every vertex in the graph
+	 */
+	public DistanceField<V> DoDeltaStepping(V start, ForkJoinPool pool) {
+		return DoDeltaStepping(start, defaultDelta(), pool);
+	}
+
+	/* Half the largest edge weight, rounded up, so about half of the weights are light */
+	private int defaultDelta() {
+		return Math.max((maxWeight() + 1) / 2, 1);
+	}
+
+	/** 
+	 * <P>The same distances as DoDijkstraDistances, computed on several
+	 * threads by delta-stepping.  Vertices are settled a bucket of
+	 * costs delta wide at a time, and all of the vertices in a bucket are
+	 * relaxed at once.  A larger delta gives the threads more to do at
+	 * once, but more vertices are relaxed again after their cost falls.
+	 * When several lowest cost paths lead to a vertex, which one
+	 * getPathTo returns is not fixed.  Observers are not notified.</P>
+	 * 
+	 * @param start vertex all the costs are measured from
+	 * @param delta width of a bucket, at least 1
+	 * @param parallelism number of threads to use
+	 * @return the cost of, and a lowest cost path to, every vertex in the graph
+	 */
+	public DistanceField<V> DoDeltaStepping(V start, int delta, int parallelism) {
+		if(delta < 1 || parallelism < 1) {
+			throw new IllegalArgumentException();
+		}
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			return DoDeltaStepping(start, delta, pool);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/** 
+	 * <P>The same as DoDeltaStepping(start, delta, parallelism), run on a
+	 * pool the caller keeps.</P>
+	 * 
+	 * @param start vertex all the costs are measured from
+	 * @param delta width of a bucket, at least 1
+	 * @param pool the pool to run the search's tasks on
+	 * @return the cost of, and a lowest cost path to, every vertex in the graph
+	 */
+	public DistanceField<V> DoDeltaStepping(V start, int delta, ForkJoinPool pool) {
+		if(delta < 1) {
+			throw new IllegalArgumentException();
 		}
+		int startIndex = requireIndex(start);
+		int[] distance = new int[vertexCount()];
+		int[] predecessor = new int[vertexCount()];
+		new DeltaStepping<V>(this, delta, pool).run(startIndex, distance, predecessor);
+		return new DistanceField<>(this, startIndex, distance, predecessor);
+	}
+
+	/**
+	 * The part of Dijkstra's algorithm shared by DoDijsktra, DoDijkstraToTarget
+	 * and DoDijkstraDistances.  Fills in the lowest cost and predecessor of every
+	 * vertex, calling notifyDijkstraVertexFinished for each vertex as it is
+	 * finished.  Vertices that are never reached are left with a cost of
+	 * INFINITY and a predecessor of -1.  The start vertex is its own predecessor.
+	 * 
+	 * @param startIndex vertex where algorithm will start
+	 * @param stopIndex stop once this vertex is finished, or -1 to finish every
+	 * reachable vertex
+	 * @param lowestCost filled in with the cost of each vertex, indexed by vertex index
+	 * @param predecessors filled in with the predecessor of each vertex
+	 * **/
+	private void dijkstra(int startIndex, int stopIndex, int[] lowestCost, int[] predecessors) {
+		// INITIALIZING THE TABLE AND MAKING IT EMPTY----------------------
+		Arrays.fill(lowestCost, INFINITY);                                       //every vertex starts at [infinity|tbd]
+		Arrays.fill(predecessors, -1);
 		// ----------------------------------------------------------------
 
 
 		
 		//BEGINNING OF DIJSKTRA ALGORITHM*********************
-		Set<V> finishedVertices = new HashSet<>();
+		boolean[] finishedVertices = new boolean[vertexCount()];
+		IndexedPriorityQueue unfinishedVertices = newDijkstraQueue(); 					//only holds vertices with a finite cost
+		int[] adjacentVertices = new int[maxDegree()];
+		int[] weights = new int[maxDegree()];
 
-		table.put(start, new Object[] {0, start});  										//add start vertex
+		lowestCost[startIndex] = 0;  													//add start vertex
+		predecessors[startIndex] = startIndex;
+		unfinishedVertices.insertOrDecrease(startIndex, 0);
 
-		Set<V> adjacentVertices;
-		V predecessor = start; 																//for which one we're looking at
-		int minCost = 0;
-		
-		while(unfinishedVertices.size() != 0) {  											//while we have not explored every vertice
-			adjacentVertices = adjacentVerticesNotVisited(finishedVertices, predecessor); 	//adjacent to H is [A,B,I]
+		while( !unfinishedVertices.isEmpty() ) {  											//while some reachable vertex is not finished
+			int minCost = unfinishedVertices.peekKey(); 									//the lowest unfinished vertex in the table
+			int predecessor = unfinishedVertices.extractMin(); 								//and the cost of that vertex
 
-			if(adjacentVertices.size() != 0) {
+			if(predecessor != stopIndex) {                                                  //no need to look past the stop vertex
 				int pathCost;
-				for(V k: adjacentVertices) {
+				int count = successors(predecessor, adjacentVertices, weights);
+				for(int i = 0; i < count; i++) {
+					int k = adjacentVertices[i];
+					if(finishedVertices[k]) {
+						continue;
+					}
 					//go to dijsktras table. change lowestCost to the 
 					//(adjacent vertex's weight) + (predecessor's lowest cost) ex. 0 + 14
-					pathCost = weightedGraph.get(predecessor).get(k) + (int)table.get(predecessor)[0];
-					if(pathCost < (int)table.get(k)[0]) {
-						table.get(k)[0] = pathCost;  
-						table.get(k)[1] = predecessor; //set adjacent vertex's predecessor
+					pathCost = weights[i] + minCost;
+					if(pathCost < lowestCost[k]) {
+						lowestCost[k] = pathCost;  
+						predecessors[k] = predecessor; //set adjacent vertex's predecessor
+						unfinishedVertices.insertOrDecrease(k, pathCost);
 					}
 				}
-
 			}
-			//lowest cost for adjacent vertices
-			unfinishedVertices.remove(predecessor);
-			finishedVertices.add(predecessor);
+
+			finishedVertices[predecessor] = true;
 
 			for(GraphAlgorithmObserver<V> x: observerList) {//               (2)	
-				x.notifyDijkstraVertexFinished(predecessor, minCost);
+				x.notifyDijkstraVertexFinished(vertexAt(predecessor), minCost);
 			}
 
-			predecessor = minCostPred(table, unfinishedVertices); 			//determine the lowest unfinished vertex in the table
-			minCost = minCost(table, unfinishedVertices); 					// the cost of that vertex
+			if(predecessor == stopIndex) {
+				break;
+			}
 		}
+	}
 
-		//shortest path from start to end
+	/**
+	 * Walks the predecessors filled in by a Dijkstra or A* search back from
+	 * the end vertex.
+	 * 
+	 * @return the path from start to end, or an empty list if end was never reached
+	 * **/
+	private List<V> tablePath(int[] predecessors, int startIndex, int endIndex) {
 		LinkedList<V> path = new LinkedList<>();
 		//iterates thru every V inside path
 		//start from "end" and stop at "start". Going backwards
-		for(V v = end; v != start; v = (V) table.get(v)[1]) { 
-			path.addFirst(v);
+		if(predecessors[endIndex] != -1) {                                   //an unreachable end gives an empty path
+			for(int v = endIndex; v != startIndex; v = predecessors[v]) { 
+				path.addFirst(vertexAt(v));
+			}
+			path.addFirst(vertexAt(startIndex));
 		}
-		path.addFirst(start);
+		return path;
+	}
 
-		for(GraphAlgorithmObserver<V> x: observerList) {//                   (3)
-			x.notifyDijkstraIsOver(path);
+	/**
+	 * Picks the queue for Dijkstra's unfinished vertices: a BucketQueue when the
+	 * edge weights are small enough, otherwise an IndexedMinHeap.  Both break
+	 * ties by dijkstraTieOrder, so the choice never changes the result.
+	 * 
+	 * @return an empty queue able to hold every vertex in the graph
+	 * **/
+	IndexedPriorityQueue newDijkstraQueue() {
+		if(maxWeight() <= BUCKET_QUEUE_MAX_WEIGHT) {
+			BucketQueue buckets = new BucketQueue(vertexCount(), Math.max(maxWeight(), 1));
+			buckets.setTieOrder(dijkstraTieOrder());
+			return buckets;
 		}
-
+		IndexedMinHeap heap = new IndexedMinHeap(vertexCount());
+		heap.setTieOrder(dijkstraTieOrder());
+		return heap;
 	}
 
 	/**
-	 * Used in diktras method for determining which vertices around the one being visited have not been completed yet
+	 * The order Dijkstra's algorithm finishes vertices of equal cost in.  The
+	 * original table scan went through a HashSet of the vertices and took the
+	 * first one with the lowest cost, so a vertex's rank is its place in that
+	 * HashSet.  This keeps the finished order and the path the same as they
+	 * always were.  A subclass that keeps its vertices somewhere other than
+	 * weightedGraph gets null, which breaks ties by index instead, unless it
+	 * overrides this: MazeGraph works out the order its HashMap used to give.
+	 * ImplicitMazeGraph and CompactGraph never had a HashSet order to keep.
 	 * 
-	 * @param Set<V> finishedVertices, V predecessor from the dikstras method
-	 * @return Set<v> of vertices
+	 * @return rank of every vertex index, or null
 	 * **/
-	private Set<V> adjacentVerticesNotVisited(Set<V> finishedVertices, V predecessor){
-		Set<V> adjacentVertices = weightedGraph.get(predecessor).keySet();
-		adjacentVertices.removeAll(finishedVertices);
-		return adjacentVertices;
+	int[] dijkstraTieOrder() {
+		if(vertexList.size() != vertexCount()) {
+			return null;
+		}
+		int[] order = dijkstraOrder;
+		if(order == null) {
+			order = new int[vertexCount()];
+			int rank = 0;
+			for(V v: new HashSet<V>(weightedGraph.keySet())) {
+				order[vertexIds.get(v)] = rank++;
+			}
+			dijkstraOrder = order;
+		}
+		return order;
 	}
 
+	/** 
+	 * <P>Perform an A* search from the "start" vertex to the "end"
+	 * vertex.  A* works like Dijkstra's algorithm, but the open set is
+	 * ordered by the cost so far PLUS the heuristic's estimate of the
+	 * cost still to go, so vertices that lead toward "end" are expanded
+	 * first.  The search stops as soon as "end" is expanded.</P>
+	 * 
+	 * <P>If the heuristic is admissible (never overestimates) the path
+	 * found is optimal.  A vertex that was already expanded is re-opened
+	 * if a cheaper path to it turns up, so the heuristic does not also
+	 * need to be consistent.</P>
+	 * 
+	 * <P>Before the search begins, this method goes through the collection
+	 * of Observers, calling notifyDijkstraHasBegun on each one.  Each time a
+	 * vertex is expanded it calls notifyAStarVertexExpanded with the vertex
+	 * and the cost of the path leading to it.  When the search is over it
+	 * calls notifyDijkstraIsOver with the path from "start" to "end" (empty
+	 * if "end" cannot be reached).</P>
+	 * 
+	 * @param start vertex where search begins
+	 * @param end vertex where search ends
+	 * @param heuristic estimates the remaining cost from a vertex to "end"
+	 * @return the lowest cost path from start to end and its cost
+	 */
+	public ShortestPath<V> DoAStar(V start, V end, Heuristic<V> heuristic) {
+		for(GraphAlgorithmObserver<V> x: observerList) {
+			x.notifyDijkstraHasBegun();
+		}
 
-	/**
-	 * Used to get the minimum cost vertex in the table after calculing the paths. 
+		// Same lowestCost and predecessor arrays as Dijkstra
+		int[] lowestCost = new int[vertexCount()];
+		int[] predecessors = new int[vertexCount()];
+		Arrays.fill(lowestCost, INFINITY);
+		Arrays.fill(predecessors, -1);
+		IndexedMinHeap openVertices = new IndexedMinHeap(vertexCount()); 		//keyed by cost + estimate
+		int[] adjacentVertices = new int[maxDegree()];
+		int[] weights = new int[maxDegree()];
+		int startIndex = requireIndex(start);
+		int endIndex = requireIndex(end);
+
+		lowestCost[startIndex] = 0;
+		predecessors[startIndex] = startIndex;
+		openVertices.insert(startIndex, heuristic.estimate(start, end));
+
+		boolean endReached = false;
+		while( !openVertices.isEmpty() && !endReached ) {
+			int current = openVertices.extractMin();
+			int costSoFar = lowestCost[current];
+
+			for(GraphAlgorithmObserver<V> x: observerList) {
+				x.notifyAStarVertexExpanded(vertexAt(current), costSoFar);
+			}
+
+			if(current == endIndex) {
+				endReached = true;
+				break;
+			}
+
+			int count = successors(current, adjacentVertices, weights);
+			for(int i = 0; i < count; i++) {
+				int k = adjacentVertices[i];
+				int pathCost = costSoFar + weights[i];
+				if(pathCost < lowestCost[k]) {                    //also re-opens a vertex that was already expanded
+					lowestCost[k] = pathCost;
+					predecessors[k] = current;
+					openVertices.insertOrDecrease(k, pathCost + heuristic.estimate(vertexAt(k), end));
+				}
+			}
+		}
+
+		List<V> path = endReached ? tablePath(predecessors, startIndex, endIndex) : new LinkedList<V>();
+
+		for(GraphAlgorithmObserver<V> x: observerList) {
+			x.notifyDijkstraIsOver(path);
+		}
+		return new ShortestPath<>(path, endReached ? lowestCost[endIndex] : -1);
+	}
+
+	/** 
+	 * <P>Breadth-First-Search from both ends at once.  One frontier grows
+	 * forward from "start" and another grows backward (along reversed
+	 * edges) from "end", one whole level at a time, always growing the
+	 * smaller frontier.  As soon as a level has been expanded during
+	 * which the two frontiers touched, the shortest path (fewest edges)
+	 * is known and the search stops.</P>
 	 * 
-	 * @param HashMap<V,Object[]> table, Set<V> unfinishedVertices
-	 * @return V vertex thats the min cost
-	 * **/
-	private V minCostPred(HashMap<V,Object[]> table, Set<V> unfinishedVertices) {
-		int minCost = INFINITY;
-		int cost;
-		V minVertex = null;
-		
-		//look at every vertex in the table and examines their costs too see which one is the lowest
-		for(V k: unfinishedVertices) {
-			cost = (int)table.get(k)[0]; 	//examines the cost
-			if(cost == (INFINITY)) { 		//skips right over it if its unvisited
-				continue;
+	 * <P>Observers are notified just like in DoBFS: notifyBFSHasBegun,
+	 * then notifyVisit for every vertex expanded by either frontier,
+	 * then notifySearchIsOver.</P>
+	 * 
+	 * @param start vertex where search begins
+	 * @param end vertex where search ends
+	 * @return a path with the fewest edges from start to end, or an
+	 * empty list if end cannot be reached
+	 */
+	public List<V> DoBidirectionalBFS(V start, V end) {
+		for(GraphAlgorithmObserver<V> x: observerList) {
+			x.notifyBFSHasBegun();
+		}
+
+		int n = vertexCount();
+		int[] forwardParent = new int[n];         // vertex ---> the vertex it was reached from, -1 if not reached
+		int[] backwardParent = new int[n];
+		int[] forwardDepth = new int[n];
+		int[] backwardDepth = new int[n];
+		Arrays.fill(forwardParent, -1);
+		Arrays.fill(backwardParent, -1);
+		IntRingQueue forwardQueue = new IntRingQueue(n);
+		IntRingQueue backwardQueue = new IntRingQueue(n);
+		int[] adjacentVertices = new int[maxDegree()];
+		int[] weights = new int[maxDegree()];
+		int startIndex = requireIndex(start);
+		int endIndex = requireIndex(end);
+
+		forwardParent[startIndex] = startIndex;
+		forwardQueue.addLast(startIndex);
+		backwardParent[endIndex] = endIndex;
+		backwardQueue.addLast(endIndex);
+
+		int meeting = startIndex == endIndex ? startIndex : -1;
+		int bestLength = meeting == -1 ? INFINITY : 0;
+
+		while(meeting == -1 && !forwardQueue.isEmpty() && !backwardQueue.isEmpty()) {
+			boolean forward = forwardQueue.size() <= backwardQueue.size();
+			IntRingQueue queue = forward ? forwardQueue : backwardQueue;
+			int[] parent = forward ? forwardParent : backwardParent;
+			int[] otherParent = forward ? backwardParent : forwardParent;
+			int[] depth = forward ? forwardDepth : backwardDepth;
+			int[] otherDepth = forward ? backwardDepth : forwardDepth;
+
+			int bestMeeting = -1;
+			for(int levelSize = queue.size(); levelSize > 0; levelSize--) {    //expand exactly one level
+				int nextElem = queue.removeFirst();
+				for(GraphAlgorithmObserver<V> x: observerList) {
+					x.notifyVisit(vertexAt(nextElem));
+				}
+				int count = forward ? successors(nextElem, adjacentVertices, weights)
+						: predecessors(nextElem, adjacentVertices, weights);
+				for(int i = 0; i < count; i++) {
+					int successor = adjacentVertices[i];
+					if(parent[successor] == -1) {
+						parent[successor] = nextElem;
+						depth[successor] = depth[nextElem] + 1;
+						queue.addLast(successor);
+					}
+					if(otherParent[successor] != -1 && depth[successor] + otherDepth[successor] < bestLength) {
+						bestLength = depth[successor] + otherDepth[successor];   //the frontiers touch here
+						bestMeeting = successor;
+					}
+				}
 			}
+			meeting = bestMeeting;
+		}
+
+		List<V> path = joinPaths(meeting, startIndex, forwardParent, endIndex, backwardParent);
 
-			if(cost < minCost) { 			//for setting the new minCost
-				minCost = cost;
-				minVertex = k;
+		for(GraphAlgorithmObserver<V> x: observerList) {
+			x.notifySearchIsOver();
+		}
+		return path;
+	}
+
+	/** 
+	 * <P>Dijkstra's algorithm from both ends at once.  One search runs
+	 * forward from "start" and another runs backward (along reversed edges)
+	 * from "end", and each step finishes a vertex on whichever side has the
+	 * cheaper next vertex.  Every edge that reaches a vertex already seen by
+	 * the other side gives a candidate path.  Once the cheapest unfinished
+	 * costs of the two sides add up to at least the best candidate, no
+	 * cheaper path can exist and the search stops.</P>
+	 * 
+	 * <P>Observers are notified like in DoDijsktra: notifyDijkstraHasBegun,
+	 * then notifyDijkstraVertexFinished for every vertex finished by either
+	 * side (with its cost from "start" for the forward side, or to "end" for
+	 * the backward side), then notifyDijkstraIsOver with the path.</P>
+	 * 
+	 * @param start vertex where the path begins
+	 * @param end vertex where the path ends
+	 * @return the lowest cost path from start to end and its cost
+	 */
+	public ShortestPath<V> DoBidirectionalDijkstra(V start, V end) {
+		for(GraphAlgorithmObserver<V> x: observerList) {
+			x.notifyDijkstraHasBegun();
+		}
+
+		int n = vertexCount();
+		int[] forwardCost = new int[n];           // vertex ---> lowest cost found so far
+		int[] backwardCost = new int[n];
+		int[] forwardPred = new int[n];
+		int[] backwardPred = new int[n];
+		Arrays.fill(forwardCost, INFINITY);
+		Arrays.fill(backwardCost, INFINITY);
+		boolean[] forwardFinished = new boolean[n];
+		boolean[] backwardFinished = new boolean[n];
+		IndexedPriorityQueue forwardQueue = newDijkstraQueue();
+		IndexedPriorityQueue backwardQueue = newDijkstraQueue();
+		int[] adjacentVertices = new int[maxDegree()];
+		int[] weights = new int[maxDegree()];
+		int startIndex = requireIndex(start);
+		int endIndex = requireIndex(end);
+
+		forwardCost[startIndex] = 0;
+		forwardPred[startIndex] = startIndex;
+		forwardQueue.insertOrDecrease(startIndex, 0);
+		backwardCost[endIndex] = 0;
+		backwardPred[endIndex] = endIndex;
+		backwardQueue.insertOrDecrease(endIndex, 0);
+
+		int meeting = startIndex == endIndex ? startIndex : -1;
+		int bestCost = meeting == -1 ? INFINITY : 0;
+
+		while( !forwardQueue.isEmpty() && !backwardQueue.isEmpty()
+				&& (long)forwardQueue.peekKey() + backwardQueue.peekKey() < bestCost ) {
+			boolean forward = forwardQueue.peekKey() <= backwardQueue.peekKey();
+			IndexedPriorityQueue queue = forward ? forwardQueue : backwardQueue;
+			int[] cost = forward ? forwardCost : backwardCost;
+			int[] otherCost = forward ? backwardCost : forwardCost;
+			int[] pred = forward ? forwardPred : backwardPred;
+			boolean[] finished = forward ? forwardFinished : backwardFinished;
+
+			int minCost = queue.peekKey();
+			int current = queue.extractMin();
+			finished[current] = true;
+			for(GraphAlgorithmObserver<V> x: observerList) {
+				x.notifyDijkstraVertexFinished(vertexAt(current), minCost);
+			}
+
+			int count = forward ? successors(current, adjacentVertices, weights)
+					: predecessors(current, adjacentVertices, weights);
+			for(int i = 0; i < count; i++) {
+				int k = adjacentVertices[i];
+				if( !finished[k] ) {
+					int pathCost = minCost + weights[i];
+					if(pathCost < cost[k]) {
+						cost[k] = pathCost;
+						pred[k] = current;
+						queue.insertOrDecrease(k, pathCost);
+					}
+				}
+				if(otherCost[k] != INFINITY && cost[k] + otherCost[k] < bestCost) {    //the two sides meet at k
+					bestCost = cost[k] + otherCost[k];
+					meeting = k;
+				}
 			}
 		}
-		
-		//returns the actual V item
 
-		return minVertex;
+		List<V> path = joinPaths(meeting, startIndex, forwardPred, endIndex, backwardPred);
+
+		for(GraphAlgorithmObserver<V> x: observerList) {
+			x.notifyDijkstraIsOver(path);
+		}
+		return new ShortestPath<>(path, bestCost);
 	}
 
 	/**
-	 * Similar to the previos method above this one just returns the minCost as a integer
+	 * Used by the bidirectional searches to build the path start ... meeting ... end
+	 * out of the two predecessor arrays.
 	 * 
-	 * @param HashMap<V,Object[]> table, Set<V> unfinishedVertices
-	 * @return V vertex thats the min cost
+	 * @return the path, or an empty list if meeting is -1
 	 * **/
-	private int minCost(HashMap<V,Object[]> table, Set<V> unfinishedVertices) {
-		//look at every vertex in the table and examines their costs too see which one is the lowest
-		int minCost = INFINITY;
-		int cost;
-		for(V k: unfinishedVertices) { 
-			cost = (int)table.get(k)[0];
-			//don't need to examine if it is still infinity 
-			if(cost == (INFINITY)) {
-				continue;
+	private List<V> joinPaths(int meeting, int startIndex, int[] forwardPred, int endIndex, int[] backwardPred) {
+		LinkedList<V> path = new LinkedList<>();
+		if(meeting != -1) {
+			for(int v = meeting; v != startIndex; v = forwardPred[v]) {
+				path.addFirst(vertexAt(v));
 			}
-
-			if(cost < minCost) { //setting the new lowest cost
-				minCost = cost;
+			path.addFirst(vertexAt(startIndex));
+			for(int v = meeting; v != endIndex; ) {
+				v = backwardPred[v];
+				path.addLast(vertexAt(v));
 			}
 		}
+		return path;
+	}
 
-		return minCost;
+	/** 
+	 * <P>Breadth-First-Search from "start" to "end" using the arrays of a
+	 * SearchWorkspace instead of allocating new ones.  The vertices are
+	 * visited in the same order as DoBFS, but no observers are notified,
+	 * so once the workspace has grown to the size of the graph a search
+	 * allocates nothing.  The path found is left in the workspace.</P>
+	 * 
+	 * @param start vertex where search begins
+	 * @param end vertex where search ends
+	 * @param workspace holds the search's state and, afterwards, its path
+	 * @return true if "end" was reached
+	 */
+	public boolean DoBFS(V start, V end, SearchWorkspace workspace) {
+		int startIndex = requireIndex(start);
+		int endIndex = requireIndex(end);
+		workspace.begin(vertexCount(), maxDegree());
+		IntRingQueue queue = workspace.queue();
+		int[] adjacentVertices = workspace.targets;
+		int[] weights = workspace.weights;
+
+		workspace.reach(startIndex, 0, startIndex);
+		queue.addLast(startIndex);
+		while( !queue.isEmpty() ) {
+			int nextElem = queue.removeFirst();
+			if(nextElem == endIndex) {
+				workspace.tracePath(startIndex, endIndex);
+				return true;
+			}
+			int hops = workspace.costOf(nextElem) + 1;
+			int count = successors(nextElem, adjacentVertices, weights);
+			for(int i = 0; i < count; i++) {
+				if( !workspace.isReached(adjacentVertices[i]) ) {
+					workspace.reach(adjacentVertices[i], hops, nextElem);
+					queue.addLast(adjacentVertices[i]);
+				}
+			}
+		}
+		return false;
 	}
 
+	/** 
+	 * <P>Depth-First-Search from "start" to "end" using the arrays of a
+	 * SearchWorkspace.  The vertices are visited in the same order as
+	 * DoDFS, but no observers are notified.  The path found (the branch
+	 * of the search that reached "end", not necessarily the shortest) is
+	 * left in the workspace.</P>
+	 * 
+	 * @param start vertex where search begins
+	 * @param end vertex where search ends
+	 * @param workspace holds the search's state and, afterwards, its path
+	 * @return true if "end" was reached
+	 */
+	public boolean DoDFS(V start, V end, SearchWorkspace workspace) {
+		int startIndex = requireIndex(start);
+		int endIndex = requireIndex(end);
+		workspace.begin(vertexCount(), maxDegree());
+		int[] adjacentVertices = workspace.targets;
+		int[] weights = workspace.weights;
+
+		workspace.push(startIndex, startIndex);
+		while( !workspace.isStackEmpty() ) {
+			int nextElem = workspace.pop();
+			if(workspace.isReached(nextElem)) {
+				continue;                                   //already visited through another branch
+			}
+			workspace.reach(nextElem, 0, workspace.poppedFrom());
+			if(nextElem == endIndex) {
+				workspace.tracePath(startIndex, endIndex);
+				return true;
+			}
+			int count = successors(nextElem, adjacentVertices, weights);
+			for(int i = 0; i < count; i++) {
+				if( !workspace.isReached(adjacentVertices[i]) ) {
+					workspace.push(adjacentVertices[i], nextElem);
+				}
+			}
+		}
+		return false;
+	}
 
+	/** 
+	 * <P>Dijkstra's algorithm from "start" to "end" using the arrays and
+	 * priority queue of a SearchWorkspace.  Like DoDijkstraToTarget it
+	 * stops as soon as "end" is finished, but no observers are notified
+	 * and nothing is allocated once the workspace is big enough.  The
+	 * lowest cost path is left in the workspace.</P>
+	 * 
+	 * @param start vertex where algorithm will start
+	 * @param end the algorithm terminates once this vertex is finished
+	 * @param workspace holds the search's state and, afterwards, its path
+	 * @return the cost of the lowest cost path, or -1 if "end" cannot be reached
+	 */
+	public int DoDijsktra(V start, V end, SearchWorkspace workspace) {
+		int startIndex = requireIndex(start);
+		int endIndex = requireIndex(end);
+		workspace.begin(vertexCount(), maxDegree());
+		IndexedPriorityQueue unfinishedVertices = workspace.dijkstraQueue(maxWeight(), dijkstraTieOrder());
+		int[] adjacentVertices = workspace.targets;
+		int[] weights = workspace.weights;
+
+		workspace.reach(startIndex, 0, startIndex);
+		unfinishedVertices.insertOrDecrease(startIndex, 0);
+		while( !unfinishedVertices.isEmpty() ) {
+			int minCost = unfinishedVertices.peekKey();
+			int predecessor = unfinishedVertices.extractMin();
+			workspace.finish(predecessor);
+			if(predecessor == endIndex) {
+				workspace.tracePath(startIndex, endIndex);
+				return minCost;
+			}
+			int count = successors(predecessor, adjacentVertices, weights);
+			for(int i = 0; i < count; i++) {
+				int k = adjacentVertices[i];
+				if(workspace.isFinished(k)) {
+					continue;
+				}
+				int pathCost = weights[i] + minCost;
+				if(pathCost < workspace.costOf(k)) {
+					workspace.reach(k, pathCost, predecessor);
+					unfinishedVertices.insertOrDecrease(k, pathCost);
+				}
+			}
+		}
+		return -1;
+	}
 
+	/** 
+	 * @param workspace a workspace last used by a search of this graph
+	 * @param i position along the path, 0 being the start
+	 * @return the i-th vertex of the path the search left in the workspace
+	 */
+	public V getPathVertex(SearchWorkspace workspace, int i) {
+		return vertexAt(workspace.getPathIndex(i));
+	}
 
+	/** 
+	 * <P>Returns an immutable copy of this graph in compressed sparse row
+	 * form: the edges of every vertex are stored one after another in
+	 * plain int arrays, so the searches read them without touching a
+	 * HashMap.  Every search gives the same answers on the copy as on
+	 * this graph.  Use it when a graph is built once and searched many
+	 * times.</P>
+	 * 
+	 * <P>Later changes to this graph do not affect the copy.  Observers
+	 * are not copied.</P>
+	 * 
+	 * @return a snapshot of the vertices and edges of this graph
+	 */
+	public CompactGraph<V> freeze() {
+		return new CompactGraph<V>(this, reverseGraph == null);
+	}
 
 }
-     
@@ -0,0 +1,234 @@
+package maze;
+
+import java.util.Arrays;
+
+/**
+ * <P>Breadth first search of a maze 64 junctures at a time, straight from
+ * the packed wall bits, for flood fills and connectivity checks on mazes
+ * too large to turn into a graph.  No Juncture, vertex index or queue
+ * entry is made for a juncture; the frontier of each level is a set of
+ * 64 bit words, and every move is a shift and a mask of a whole word:</P>
+ *
+ * <ul>
+ * <li>right: (frontier &amp; openRight) &lt;&lt; 1, with bit 63 carried
+ * into the next word of the row</li>
+ * <li>left: (frontier &gt;&gt;&gt; 1) &amp; openRight, with bit 0 carried
+ * into bit 63 of the word before</li>
+ * <li>down: frontier &amp; openDown, into the same word of the next row</li>
+ * <li>up: frontier &amp; openDown of the row above</li>
+ * </ul>
+ *
+ * <P>where openRight and openDown have a bit set for every juncture
+ * with a passage to the right of it or below it.  Only the words that
+ * hold part of the frontier are looked at, so a level costs about the
+ * number of words it touches however large the maze is.</P>
+ *
+ * <P>The constructor copies the open passages out of the maze's storage
+ * once, two bits per juncture, and a search keeps one more bit per
+ * juncture for the junctures it has reached.  The weights are not used:
+ * distances are counted in passages.  A BitParallelBFS is reused from
+ * one search to the next, so it must not be shared between threads.</P>
+ */
+public class BitParallelBFS {
+
+	private final int mazeWidth, mazeHeight;
+	private final int wordsPerRow;          // words of junctures in each row of the masks
+	private final long[] openRight;         // bit x of word (y, x / 64) set if there is a passage right of (x, y)
+	private final long[] openDown;          // bit x of word (y, x / 64) set if there is a passage below (x, y)
+	private final long[] visited;           // junctures reached by the last search
+	private long[] frontier, next;          // bits of this level and the next, only nonzero at the words listed
+	private int[] active, touched;          // words holding bits of frontier and next
+	private int activeCount, touchedCount;
+	private int depth = -1;
+
+	/**
+	 * @param maze the maze to search.  Later changes to the maze are not
+	 * seen by the searches.
+	 */
+	public BitParallelBFS(Maze maze) {
+		MazeStorage storage = maze.getStorage();
+		mazeWidth = maze.getMazeWidth();
+		mazeHeight = maze.getMazeHeight();
+		wordsPerRow = (mazeWidth + 63) >>> 6;
+		int wallWords = (mazeWidth + 1 + 63) >>> 6;     // the wall grid is a post wider
+		int words = mazeHeight * wordsPerRow;
+		openRight = new long[words];
+		openDown = new long[words];
+		visited = new long[words];
+		frontier = new long[words];
+		next = new long[words];
+		active = new int[16];
+		touched = new int[16];
+
+		for (int y = 0; y < mazeHeight; y++) {
+			for (int w = 0; w < wordsPerRow; w++) {
+				//juncture x has the wall down from post x + 1 on its right, and the wall right of post x below it
+				long down = storage.getWallDownWord(y, w);
+				long nextDown = w + 1 < wallWords ? storage.getWallDownWord(y, w + 1) : -1L;
+				openRight[y * wordsPerRow + w] = ~((down >>> 1) | (nextDown << 63)) & junctures(w, mazeWidth - 1);
+				if (y + 1 < mazeHeight) {
+					openDown[y * wordsPerRow + w] = ~storage.getWallToRightWord(y + 1, w) & junctures(w, mazeWidth);
+				}
+			}
+		}
+	}
+
+	/* Bits of word w for columns 0 to columns - 1 */
+	private static long junctures(int w, int columns) {
+		int count = columns - (w << 6);
+		if (count >= 64) {
+			return -1L;
+		}
+		return count <= 0 ? 0 : (1L << count) - 1;
+	}
+
+	/**
+	 * Find every juncture that can be reached from juncture (x, y).
+	 *
+	 * @param x
+	 * @param y
+	 * @return number of junctures reached, including (x, y)
+	 * @throws IllegalArgumentException if (x, y) is not in the maze
+	 */
+	public long floodFill(int x, int y) {
+		return search(x, y, null);
+	}
+
+	/**
+	 * Find the fewest passages from juncture (x, y) to every juncture.
+	 *
+	 * @param x
+	 * @param y
+	 * @param hops filled in with the number of passages from (x, y) to
+	 * juncture (i, j) at hops[j * getMazeWidth() + i], or -1 if it can
+	 * not be reached
+	 * @return number of junctures reached, including (x, y)
+	 * @throws IllegalArgumentException if (x, y) is not in the maze or
+	 * hops is too short
+	 */
+	public long hopDistances(int x, int y, int[] hops) {
+		if (hops.length < (long)mazeWidth * mazeHeight) {
+			throw new IllegalArgumentException();
+		}
+		Arrays.fill(hops, 0, mazeWidth * mazeHeight, -1);
+		return search(x, y, hops);
+	}
+
+	/**
+	 * @return true if every juncture can be reached from every other,
+	 * which a perfect maze always passes
+	 */
+	public boolean isConnected() {
+		return floodFill(0, 0) == (long)mazeWidth * mazeHeight;
+	}
+
+	/**
+	 * @param x
+	 * @param y
+	 * @return true if the last search reached juncture (x, y)
+	 * @throws IllegalArgumentException if (x, y) is not in the maze
+	 */
+	public boolean isReached(int x, int y) {
+		requireJuncture(x, y);
+		return (visited[y * wordsPerRow + (x >>> 6)] & (1L << x)) != 0;
+	}
+
+	/**
+	 * @return the most passages from the start of the last search to a
+	 * juncture it reached, or -1 if there has been no search
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	private void requireJuncture(int x, int y) {
+		if (x < 0 || x >= mazeWidth || y < 0 || y >= mazeHeight) {
+			throw new IllegalArgumentException();
+		}
+	}
+
+	private long search(int x, int y, int[] hops) {
+		requireJuncture(x, y);
+		Arrays.fill(visited, 0);
+		int start = y * wordsPerRow + (x >>> 6);
+		visited[start] = frontier[start] = 1L << x;
+		activeCount = 0;
+		active = add(active, activeCount++, start);
+		if (hops != null) {
+			hops[y * mazeWidth + x] = 0;
+		}
+		long reached = 1;
+		int level = 0;
+		while (activeCount > 0) {
+			touchedCount = 0;
+			for (int i = 0; i < activeCount; i++) {
+				expand(active[i]);
+			}
+			level++;
+			activeCount = 0;
+			for (int i = 0; i < touchedCount; i++) {
+				int id = touched[i];
+				long fresh = next[id] & ~visited[id];
+				next[id] = 0;
+				if (fresh != 0) {
+					visited[id] |= fresh;
+					frontier[id] = fresh;
+					active = add(active, activeCount++, id);
+					reached += Long.bitCount(fresh);
+					if (hops != null) {
+						record(hops, id, fresh, level);
+					}
+				}
+			}
+		}
+		depth = level - 1;
+		return reached;
+	}
+
+	/* Move every juncture in word id of the frontier one passage, in each direction */
+	private void expand(int id) {
+		long f = frontier[id];
+		frontier[id] = 0;
+		int w = id % wordsPerRow;
+		long right = f & openRight[id];
+		reach(id, (right << 1) | ((f >>> 1) & openRight[id]));
+		if (right < 0) {                                     // bit 63 crosses into the next word
+			reach(id + 1, 1L);
+		}
+		if ((f & 1) != 0 && w > 0 && openRight[id - 1] < 0) {  // bit 0 crosses into the word before
+			reach(id - 1, Long.MIN_VALUE);
+		}
+		if (id + wordsPerRow < openDown.length) {
+			reach(id + wordsPerRow, f & openDown[id]);
+		}
+		if (id >= wordsPerRow) {
+			reach(id - wordsPerRow, f & openDown[id - wordsPerRow]);
+		}
+	}
+
+	private void reach(int id, long bits) {
+		if (bits != 0) {
+			if (next[id] == 0) {
+				touched = add(touched, touchedCount++, id);
+			}
+			next[id] |= bits;
+		}
+	}
+
+	private static int[] add(int[] list, int size, int id) {
+		if (size == list.length) {
+			list = Arrays.copyOf(list, size * 2);
+		}
+		list[size] = id;
+		return list;
+	}
+
+	private void record(int[] hops, int id, long bits, int level) {
+		int y = id / wordsPerRow;
+		int x0 = (id % wordsPerRow) << 6;
+		while (bits != 0) {
+			hops[y * mazeWidth + x0 + Long.numberOfTrailingZeros(bits)] = level;
+			bits &= bits - 1;
+		}
+	}
+}
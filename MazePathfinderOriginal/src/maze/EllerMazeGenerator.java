@@ -0,0 +1,240 @@
+package maze;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * <P>Generates a maze one row of junctures at a time with Eller's
+ * algorithm, using memory proportional to the width of the maze only.
+ * Every juncture in the current row belongs to a set of junctures that
+ * are already connected.  Adjacent junctures in different sets are
+ * randomly joined, then every set is extended down into the next row
+ * at least once (so no set is ever cut off), and junctures that were
+ * not extended start new sets of their own.  In the last row every
+ * remaining set is joined, which gives a perfect maze: exactly one
+ * path between any two junctures.</P>
+ *
+ * <P>Each finished row is handed straight to its destination, so the
+ * maze can be written to a maze file (write) or a tiled maze file
+ * (writeTiled) without ever being held in memory, however tall it is.
+ * generate builds an ordinary in-memory Maze the same way.</P>
+ *
+ * <P>The mazes look different from the ones the Maze constructor draws
+ * (Eller's mazes have more short horizontal passages), but the same
+ * arguments always give the same maze.  Sparcity removes walls the same
+ * way as the Maze constructor, row by row.</P>
+ */
+public class EllerMazeGenerator {
+
+	private final int mazeHeight, mazeWidth, sparcity;
+	private final long randomSeed;
+
+	/**
+	 * @param mazeHeight
+	 * @param mazeWidth
+	 * @param sparcity value from 0 to 100, as for the Maze constructor
+	 * @param randomSeed the same seed gives the same maze every time
+	 */
+	public EllerMazeGenerator(int mazeHeight, int mazeWidth, int sparcity, long randomSeed) {
+		if (mazeHeight < 1 || mazeWidth < 1) {
+			throw new IllegalArgumentException();
+		}
+		this.mazeHeight = mazeHeight;
+		this.mazeWidth = mazeWidth;
+		this.sparcity = sparcity;
+		this.randomSeed = randomSeed;
+	}
+
+	/**
+	 * Generate the maze in memory.
+	 *
+	 * @return the maze
+	 */
+	public Maze generate() {
+		PackedMazeStorage storage = new PackedMazeStorage(mazeWidth + 1, mazeHeight + 1);
+		int[] weightRange = generate(storage);
+		return new Maze(mazeWidth + 1, mazeHeight + 1, randomSeed, sparcity, weightRange[0], weightRange[1], storage);
+	}
+
+	/**
+	 * Generate the maze straight into a maze file, which Maze.load can open.
+	 *
+	 * @param file file to create or replace
+	 * @throws IOException
+	 */
+	public void write(Path file) throws IOException {
+		try (MazeFileWriter writer = new MazeFileWriter(file, mazeWidth, mazeHeight, randomSeed, sparcity)) {
+			generate(writer);
+		}
+	}
+
+	/**
+	 * Generate the maze straight into a tiled maze file, which
+	 * TiledMazeStorage can open.
+	 *
+	 * @param file file to create or replace
+	 * @param tileSize width and height of a tile, a multiple of 64
+	 * @throws IOException
+	 */
+	public void writeTiled(Path file, int tileSize) throws IOException {
+		try (TiledMazeWriter writer = new TiledMazeWriter(file, mazeWidth, mazeHeight, tileSize, randomSeed, sparcity)) {
+			generate(writer);
+		}
+	}
+
+	/*
+	 * Draw the maze into the sink from top to bottom.  Post row y of the wall
+	 * grid (the walls above row y of junctures, and the walls between them)
+	 * is handed over once row y has been joined, along with the weights of
+	 * row y.  Returns the smallest and largest weight.
+	 */
+	int[] generate(MazeSink sink) {
+		Random random = new Random(randomSeed);
+		int width = mazeWidth;                    // in junctures, unlike Maze's fields
+		int[] set = new int[width];               // set of each juncture in the current row, -1 for none yet
+		int[] next = new int[width];              // next juncture of the same set in this row, -1 at the end
+		int[] head = new int[width];              // first juncture of each set in this row
+		int[] size = new int[width];              // number of junctures of each set in this row
+		int[] seen = new int[width];              // row + 1 once a set has been extended down in that row
+		boolean[] idUsed = new boolean[width];
+		boolean[] wallAbove = new boolean[width];       // wallToRight of the post row being built
+		boolean[] wallLeft = new boolean[width + 1];    // wallDown of the post row being built
+		int minimumWeight = Integer.MAX_VALUE;
+		int maximumWeight = 0;
+		double wallsToRemove = 0;
+
+		Arrays.fill(set, -1);
+		Arrays.fill(wallAbove, true);   // the wall around the top
+		for (int y = 0; y < mazeHeight; y++) {
+			boolean lastRow = y == mazeHeight - 1;
+
+			// junctures that were not extended from the row above start sets of their own
+			Arrays.fill(idUsed, false);
+			for (int x = 0; x < width; x++) {
+				if (set[x] != -1) {
+					idUsed[set[x]] = true;
+				}
+			}
+			int freeId = 0;
+			for (int x = 0; x < width; x++) {
+				if (set[x] == -1) {
+					while (idUsed[freeId]) {
+						freeId++;
+					}
+					set[x] = freeId;
+					idUsed[freeId] = true;
+				}
+			}
+			for (int x = width - 1; x >= 0; x--) {
+				head[set[x]] = -1;
+				size[set[x]] = 0;
+			}
+			for (int x = width - 1; x >= 0; x--) {
+				next[x] = head[set[x]];
+				head[set[x]] = x;
+				size[set[x]]++;
+			}
+
+			// randomly join neighbours in different sets (all of them in the last row)
+			wallLeft[0] = true;
+			wallLeft[width] = true;
+			for (int x = 0; x < width - 1; x++) {
+				if (set[x] != set[x + 1] && (lastRow || random.nextBoolean())) {
+					merge(set[x], set[x + 1], set, next, head, size);
+					wallLeft[x + 1] = false;
+				} else {
+					wallLeft[x + 1] = true;
+				}
+			}
+
+			// remove some walls if sparcity is > 0, about as many per row as the Maze constructor
+			if (sparcity > 0 && y > 0 && width > 1) {
+				wallsToRemove += (width + 1) * sparcity / 50.0;
+				for (; wallsToRemove >= 1; wallsToRemove--) {
+					int c = random.nextInt(width - 1) + 1;
+					if (random.nextBoolean() == false) {
+						wallLeft[c] = false;
+					} else {
+						wallAbove[c] = false;
+					}
+				}
+			}
+
+			// post row y is finished
+			for (int x = 0; x < width; x++) {
+				sink.setWallToRight(y, x, wallAbove[x]);
+			}
+			for (int x = 0; x <= width; x++) {
+				sink.setWallDown(y, x, wallLeft[x]);
+			}
+			if ( !lastRow ) {
+				for (int x = 0; x < width; x++) {
+					int weight = random.nextInt(9) + 1;
+					sink.setHorizontalWeight(y, x, weight);
+					minimumWeight = Math.min(minimumWeight, weight);
+					maximumWeight = Math.max(maximumWeight, weight);
+				}
+			}
+			for (int x = 0; x < width - 1; x++) {
+				int weight = random.nextInt(9) + 1;
+				sink.setVerticalWeight(y, x, weight);
+				minimumWeight = Math.min(minimumWeight, weight);
+				maximumWeight = Math.max(maximumWeight, weight);
+			}
+
+			// extend every set down at least once
+			for (int x = 0; x < width; x++) {
+				int id = set[x];
+				if (lastRow || seen[id] == y + 1) {
+					continue;
+				}
+				seen[id] = y + 1;
+				int extended = 0;
+				for (int m = head[id]; m != -1; m = next[m]) {
+					wallAbove[m] = !random.nextBoolean();
+					extended += wallAbove[m] ? 0 : 1;
+				}
+				if (extended == 0) {
+					int pick = random.nextInt(size[id]);
+					int m = head[id];
+					for (int i = 0; i < pick; i++) {
+						m = next[m];
+					}
+					wallAbove[m] = false;
+				}
+			}
+			for (int x = 0; x < width; x++) {
+				if (wallAbove[x]) {
+					set[x] = -1;                  // not extended, so in no set yet
+				}
+			}
+		}
+
+		// post row mazeHeight is the wall around the bottom
+		for (int x = 0; x < width; x++) {
+			sink.setWallToRight(mazeHeight, x, true);
+		}
+		return new int[] {minimumWeight, maximumWeight};
+	}
+
+	/* Join set b into set a, relabelling the smaller of the two */
+	private static void merge(int a, int b, int[] set, int[] next, int[] head, int[] size) {
+		if (size[a] < size[b]) {
+			int swap = a;
+			a = b;
+			b = swap;
+		}
+		int last = -1;
+		for (int m = head[b]; m != -1; m = next[m]) {
+			set[m] = a;
+			last = m;
+		}
+		next[last] = head[a];
+		head[a] = head[b];
+		size[a] += size[b];
+		head[b] = -1;
+		size[b] = 0;
+	}
+}
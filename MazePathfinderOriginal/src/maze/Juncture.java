@@ -15,6 +15,48 @@ public class Juncture {
 		this.y = y;
 	}
 	
+	/** 
+	 * Packs the coordinates of a juncture into one long, x in the low 32
+	 * bits and y in the high 32 bits.  Ids can be used as keys or passed
+	 * to the Maze and MazeGraph methods that take them, without creating
+	 * a Juncture.
+	 * @param x
+	 * @param y
+	 * @return the id of juncture (x, y)
+	 */
+	public static long pack(int x, int y) {
+		return ((long)y << 32) | (x & 0xFFFFFFFFL);
+	}
+	
+	/** 
+	 * @param id a value returned by pack
+	 * @return the X coordinate of the juncture
+	 */
+	public static int unpackX(long id) {
+		return (int)id;
+	}
+	
+	/** 
+	 * @param id a value returned by pack
+	 * @return the Y coordinate of the juncture
+	 */
+	public static int unpackY(long id) {
+		return (int)(id >>> 32);
+	}
+	
+	/** 
+	 * @param id a value returned by pack
+	 * @return a new Juncture with the coordinates in the id
+	 */
+	public static Juncture unpack(long id) {
+		return new Juncture(unpackX(id), unpackY(id));
+	}
+	
+	/** @return the id of this juncture, the same as pack(getX(), getY()) */
+	public long pack() {
+		return pack(x, y);
+	}
+	
 	public int getX() {
 		return x;
 	}
@@ -35,7 +77,7 @@ public class Juncture {
 	}
 	
 	public int hashCode() {
-		return x + 10000 * y;
+		return x + y * 0x9E3779B9;    //neighbours in a row stay close together, and rows do not line up for any width
 	}
 	
 	public String toString() {
@@ -0,0 +1,114 @@
+package maze;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * <P>Walls and weights read straight out of a memory-mapped maze file.
+ * Nothing is copied onto the heap: the operating system pages the file
+ * in as the words are touched.  The words are in the same layout as
+ * PackedMazeStorage's.</P>
+ *
+ * <P>A single mapping can not be larger than 2 GB, so each of the four
+ * arrays is mapped as a series of chunks of at most CHUNK_WORDS longs.</P>
+ */
+class MappedMazeStorage implements MazeStorage {
+
+	private static final int CHUNK_SHIFT = 27;               // 2^27 longs = 1 GB per chunk
+	private static final int CHUNK_WORDS = 1 << CHUNK_SHIFT;
+
+	private final int wallWordsPerRow, horizontalWordsPerRow, verticalWordsPerRow;
+	private final ByteBuffer[] wallToRight;
+	private final ByteBuffer[] wallDown;
+	private final ByteBuffer[] horizontalWeights;
+	private final ByteBuffer[] verticalWeights;
+
+	/**
+	 * Map the walls and weights of a width x height wall grid.
+	 *
+	 * @param channel an open maze file, which may be closed once this returns
+	 * @param position where the first wall word starts in the file
+	 * @param width width of the wall grid
+	 * @param height height of the wall grid
+	 * @throws IOException
+	 */
+	MappedMazeStorage(FileChannel channel, long position, int width, int height) throws IOException {
+		wallWordsPerRow = PackedMazeStorage.wallWordsPerRow(width);
+		horizontalWordsPerRow = PackedMazeStorage.horizontalWordsPerRow(width);
+		verticalWordsPerRow = PackedMazeStorage.verticalWordsPerRow(width);
+		int wallWords = PackedMazeStorage.wallWords(width, height);
+		int horizontalWords = PackedMazeStorage.horizontalWords(width, height);
+		int verticalWords = PackedMazeStorage.verticalWords(width, height);
+
+		wallToRight = map(channel, position, wallWords);
+		position += 8L * wallWords;
+		wallDown = map(channel, position, wallWords);
+		position += 8L * wallWords;
+		horizontalWeights = map(channel, position, horizontalWords);
+		position += 8L * horizontalWords;
+		verticalWeights = map(channel, position, verticalWords);
+	}
+
+	private static ByteBuffer[] map(FileChannel channel, long position, int words) throws IOException {
+		ByteBuffer[] chunks = new ByteBuffer[(words + CHUNK_WORDS - 1) >>> CHUNK_SHIFT];
+		for (int i = 0; i < chunks.length; i++) {
+			int chunkWords = Math.min(CHUNK_WORDS, words - (i << CHUNK_SHIFT));
+			MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY,
+					position + 8L * ((long)i << CHUNK_SHIFT), 8L * chunkWords);
+			chunks[i] = bytes.order(ByteOrder.LITTLE_ENDIAN);
+		}
+		return chunks;
+	}
+
+	private static long word(ByteBuffer[] chunks, int index) {
+		return chunks[index >>> CHUNK_SHIFT].getLong((index & (CHUNK_WORDS - 1)) << 3);
+	}
+
+	@Override
+	public boolean isWallToRight(int row, int col) {
+		return (word(wallToRight, row * wallWordsPerRow + (col >>> 6)) & (1L << col)) != 0;
+	}
+
+	@Override
+	public boolean isWallDown(int row, int col) {
+		return (word(wallDown, row * wallWordsPerRow + (col >>> 6)) & (1L << col)) != 0;
+	}
+
+	@Override
+	public long getWallToRightWord(int row, int word) {
+		return word(wallToRight, row * wallWordsPerRow + word);
+	}
+
+	@Override
+	public long getWallDownWord(int row, int word) {
+		return word(wallDown, row * wallWordsPerRow + word);
+	}
+
+	@Override
+	public int getHorizontalWeight(int row, int col) {
+		long word = word(horizontalWeights, row * horizontalWordsPerRow + (col >>> 4));
+		return (int)(word >>> ((col & 15) << 2)) & 15;
+	}
+
+	@Override
+	public int getVerticalWeight(int row, int col) {
+		long word = word(verticalWeights, row * verticalWordsPerRow + (col >>> 4));
+		return (int)(word >>> ((col & 15) << 2)) & 15;
+	}
+
+	@Override
+	public void writeTo(FileChannel channel) throws IOException {
+		for (ByteBuffer[] chunks : new ByteBuffer[][] {wallToRight, wallDown, horizontalWeights, verticalWeights}) {
+			for (ByteBuffer chunk : chunks) {
+				ByteBuffer bytes = chunk.duplicate();        //so the mapped buffer's position is left alone
+				bytes.clear();
+				while (bytes.hasRemaining()) {
+					channel.write(bytes);
+				}
+			}
+		}
+	}
+}
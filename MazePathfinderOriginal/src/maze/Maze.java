@@ -1,8 +1,20 @@
 package maze;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * <P>The Maze should be imagined as a rectangular grid
@@ -19,13 +31,44 @@ import java.util.Random;
  */
 public class Maze {
 
-	private static Random random = new Random();
+	private static final Random seeds = new Random();    // for mazes made without a seed
+	/*
+	 * Walls are started from the posts in random order, but shuffling every
+	 * post of a big maze at once jumps all over memory.  Instead the posts
+	 * are shuffled within square blocks this many posts wide, and the blocks
+	 * themselves are visited in random order.
+	 */
+	private static final int SEED_BLOCK = 64;
+	/*
+	 * A maze file is a FILE_HEADER_BYTES byte header (all little-endian):
+	 *   int magic, int version, int mazeWidth, int mazeHeight, long seed,
+	 *   int sparcity, int minimumWeight, int maximumWeight, int unused
+	 * followed by the words of the walls and weights, as written by
+	 * MazeStorage.writeTo.
+	 */
+	private static final int FILE_MAGIC = 0x4D415A45;   // "MAZE"
+	private static final int FILE_VERSION = 1;
+	static final int FILE_HEADER_BYTES = 40;
 	private int width, height;  // wall dimensions, not junctures
-	private int[][] wallIndex;
-	private boolean[][] wallToRight;
-	private boolean[][] wallDown;
-	private int [][] horizontalWeights;
-	private int [][] verticalWeights;
+	private MazeStorage storage;
+	private long randomSeed;
+	private int sparcity;
+	private int minimumWeight = Integer.MAX_VALUE;
+	private int maximumWeight;
+	/*
+	 * Only used while generating.  Everything is drawn from random, seeded
+	 * with randomSeed, so mazes built on different threads at the same
+	 * time do not disturb each other.  The walls are drawn into packed.  postUsed
+	 * has a bit set for every post a wall has reached; postInWall for every
+	 * post of the wall being drawn.  They use the same layout as the walls.
+	 */
+	private Random random;
+	private PackedMazeStorage packed;
+	private int postWordsPerRow;
+	private long[] postUsed;
+	private long[] postInWall;
+	private int[] wallStack;    // posts of the wall being drawn, to back up along
+	private int[] wallPosts;    // every post of the wall being drawn, to clear postInWall after
 	
 	/**
 	 * Construct random maze.
@@ -37,7 +80,7 @@ public class Maze {
 	 * more paths between junctures.
 	 */
 	public Maze(int mazeHeight, int mazeWidth, int sparcity) {
-		this(mazeHeight, mazeWidth, sparcity, random.nextLong());
+		this(mazeHeight, mazeWidth, sparcity, seeds.nextLong());
 	}
 	
 	/**
@@ -51,150 +94,351 @@ public class Maze {
 	 */
 	public Maze(int mazeHeight, int mazeWidth, int sparcity, long randomSeed) {
 		random = new Random(randomSeed);
+		this.randomSeed = randomSeed;
+		this.sparcity = sparcity;
 		width = mazeWidth + 1;
 		height = mazeHeight + 1;
-		int currWall = 1;
-		horizontalWeights = new int[height - 2][width - 1];
-		verticalWeights = new int[height - 1][width - 2];
+		packed = new PackedMazeStorage(width, height);
+		storage = packed;
 		for (int i = 0; i < height - 2; i++) {
 			for (int j = 0; j < width - 1; j++) {
-				horizontalWeights[i][j] = random.nextInt(9) + 1;
+				int weight = random.nextInt(9) + 1;
+				packed.setHorizontalWeight(i, j, weight);
+				minimumWeight = Math.min(minimumWeight, weight);
+				maximumWeight = Math.max(maximumWeight, weight);
 			}
 		}
 		for (int i = 0; i < height - 1; i++) {
 			for (int j = 0; j < width - 2; j++) {
-				verticalWeights[i][j] = random.nextInt(9) + 1;
+				int weight = random.nextInt(9) + 1;
+				packed.setVerticalWeight(i, j, weight);
+				minimumWeight = Math.min(minimumWeight, weight);
+				maximumWeight = Math.max(maximumWeight, weight);
 
 			}
 		}
-		wallIndex = new int[height][width];
+		postWordsPerRow = PackedMazeStorage.wallWordsPerRow(width);
+		postUsed = new long[PackedMazeStorage.wallWords(width, height)];
+		postInWall = new long[PackedMazeStorage.wallWords(width, height)];
 		for (int i = 0; i < width; i++) {
-			wallIndex[0][i] = currWall;
-			wallIndex[height - 1][i] = currWall;
+			setBit(postUsed, 0, i);
+			setBit(postUsed, height - 1, i);
 		}
 		for (int i = 0; i < height; i++) {
-			wallIndex[i][0] = currWall;
-			wallIndex[i][width - 1] = currWall;
+			setBit(postUsed, i, 0);
+			setBit(postUsed, i, width - 1);
 		}
-		wallToRight = new boolean[height][width];
-		wallDown = new boolean[height][width];
 		for (int i = 0; i < width - 1; i++) {
-			wallToRight[0][i] = true;
-			wallToRight[height - 1][i] = true;
+			packed.setWallToRight(0, i, true);
+			packed.setWallToRight(height - 1, i, true);
 		}
 		for (int i = 0; i < height - 1; i++) {
-			wallDown[i][0] = true;
-			wallDown[i][width - 1] = true;
+			packed.setWallDown(i, 0, true);
+			packed.setWallDown(i, width - 1, true);
 		}
 
-		/* Draw the interior walls */
-		ArrayList<Juncture> points = new ArrayList<>();
-		for (int x = 1; x < width; x++) {
-			for (int y = 1; y < height; y++) {
-				points.add(new Juncture(x, y));
-			}
+		/* Draw the interior walls, starting them from the posts in random order */
+		int blocksAcross = (width - 1 + SEED_BLOCK - 1) / SEED_BLOCK;
+		int blocksDown = (height - 1 + SEED_BLOCK - 1) / SEED_BLOCK;
+		int[] blocks = new int[blocksAcross * blocksDown];
+		for (int i = 0; i < blocks.length; i++) {
+			blocks[i] = i;
 		}
-		Collections.shuffle(points);
+		shuffle(blocks, blocks.length);
 		
-		while (points.size() > 0) {
-			Juncture p = points.remove(0);
-			int row = p.getY();
-			int col = p.getX();
-			if (wallIndex[row][col] == 0) {
-				currWall++;
-				wallIndex[row][col] = currWall;
-				drawFrom(row, col, currWall);
+		int[] points = new int[SEED_BLOCK * SEED_BLOCK];  // row * width + col
+		wallStack = new int[64];
+		wallPosts = new int[64];
+		for (int block : blocks) {
+			int left = 1 + (block % blocksAcross) * SEED_BLOCK;
+			int top = 1 + (block / blocksAcross) * SEED_BLOCK;
+			int count = 0;
+			for (int x = left; x < Math.min(left + SEED_BLOCK, width); x++) {
+				for (int y = top; y < Math.min(top + SEED_BLOCK, height); y++) {
+					points[count++] = y * width + x;
+				}
+			}
+			shuffle(points, count);
+			for (int i = 0; i < count; i++) {
+				int row = points[i] / width;
+				int col = points[i] % width;
+				if ( !bit(postUsed, row, col) ) {
+					drawFrom(row, col);
+				}
 			}
 		}
+		postUsed = null;
+		postInWall = null;
+		wallStack = null;
+		wallPosts = null;
 		
 		/* Remove some walls if sparcity is > 0 */
 		if (sparcity > 0) {
-			for (int i = 0; i < width * height * sparcity/50.0; i++) {
+			for (int i = 0; i < (double)width * height * sparcity/50.0; i++) {
 				int r = random.nextInt(height - 2) + 1;
 				int c = random.nextInt(width - 2) + 1;
 				if (random.nextBoolean() == false) {
-					wallDown[r][c] = false;
+					packed.setWallDown(r, c, false);
 				} else {
-					wallToRight[r][c] = false;
+					packed.setWallToRight(r, c, false);
 				}
 			}
 		}
+		packed = null;
+		random = null;
 	}
 	
-	private void drawFrom(int row, int col, int currWall) {
-		if (possibleToExtend(row, col, currWall)) {
-			while(true) {
-				int directionToTry = random.nextInt(4);
-				if (directionToTry == 0) {  // to right
-					int wallFound = wallIndex[row][col + 1];
-					if (wallFound != currWall) {
-						wallIndex[row][col + 1] = currWall;
-						wallToRight[row][col] = true;
-						if (wallFound == 0) {
-							drawFrom(row, col + 1, currWall);
-						}
-						return;
-					}
-				} else if (directionToTry == 1) {  // to left
-					int wallFound = wallIndex[row][col - 1];
-					if (wallFound != currWall) {
-						wallIndex[row][col - 1] = currWall;
-						wallToRight[row][col - 1] = true;
-						if (wallFound == 0) {
-							drawFrom(row, col - 1, currWall);
-						}
-						return;
-					}
-				} else if (directionToTry == 2) {  // up
-					int wallFound = wallIndex[row - 1][col];
-					if (wallFound != currWall) {
-						wallIndex[row - 1][col] = currWall;
-						wallDown[row - 1][col] = true;
-						if (wallFound == 0) {
-							drawFrom(row - 1, col, currWall);
-						}
-						return;
+	/* A maze whose walls and weights are already in storage (width and height are wall dimensions) */
+	Maze(int width, int height, long randomSeed, int sparcity,
+			int minimumWeight, int maximumWeight, MazeStorage storage) {
+		this.width = width;
+		this.height = height;
+		this.randomSeed = randomSeed;
+		this.sparcity = sparcity;
+		this.minimumWeight = minimumWeight;
+		this.maximumWeight = maximumWeight;
+		this.storage = storage;
+	}
+	
+	/**
+	 * Use a maze kept in a tiled maze file.  Only the tiles the storage
+	 * has cached are in memory, so the maze can be far larger than the
+	 * heap.
+	 * 
+	 * @param tiles an open tiled maze file
+	 */
+	public Maze(TiledMazeStorage tiles) {
+		this(tiles.getMazeWidth() + 1, tiles.getMazeHeight() + 1, tiles.getRandomSeed(), tiles.getSparcity(),
+				tiles.getMinimumWeight(), tiles.getMaximumWeight(), tiles);
+	}
+	
+	/**
+	 * Generate one maze for each seed, several at a time.  The mazes are the
+	 * same as the ones new Maze(mazeHeight, mazeWidth, sparcity, seed) makes
+	 * one after another, in the same order as the seeds.
+	 * 
+	 * @param mazeHeight
+	 * @param mazeWidth
+	 * @param sparcity
+	 * @param randomSeeds one maze is made from each seed
+	 * @param threads most mazes to generate at once
+	 * @return the mazes, in the order of randomSeeds
+	 * @throws InterruptedException if interrupted while waiting for the mazes
+	 */
+	public static List<Maze> generateAll(final int mazeHeight, final int mazeWidth, final int sparcity,
+			long[] randomSeeds, int threads) throws InterruptedException {
+		if (threads < 1) {
+			throw new IllegalArgumentException();
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Maze>> futures = new ArrayList<Future<Maze>>(randomSeeds.length);
+			for (final long randomSeed : randomSeeds) {
+				futures.add(executor.submit(new Callable<Maze>() {
+					@Override
+					public Maze call() {
+						return new Maze(mazeHeight, mazeWidth, sparcity, randomSeed);
 					}
-				} else {  //down
-					int wallFound = wallIndex[row + 1][col];
-					if (wallFound != currWall) {
-						wallIndex[row + 1][col] = currWall;
-						wallDown[row][col] = true;
-						if (wallFound == 0) {
-							drawFrom(row + 1, col, currWall);
-						}
-						return;
+				}));
+			}
+			List<Maze> mazes = new ArrayList<Maze>(randomSeeds.length);
+			for (Future<Maze> future : futures) {
+				try {
+					mazes.add(future.get());
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof Error) {
+						throw (Error)e.getCause();
 					}
+					throw (RuntimeException)e.getCause();    // the constructor throws nothing checked
 				}
 			}
-		} else {  // no current extension possible
-			while(true) {
-				int r = random.nextInt(height);
-				int c = random.nextInt(width);
-				if (wallIndex[r][c] == currWall && possibleToExtend(r, c, currWall)) {
-					drawFrom(r, c, currWall);
-					return;
+			return mazes;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	/**
+	 * Open a maze written by save.  The file is memory-mapped rather than
+	 * read, so this takes about the same time however large the maze is;
+	 * the walls and weights are paged in from the file as they are used.
+	 * 
+	 * @param file a file written by save
+	 * @return the maze in the file
+	 * @throws IOException if the file can not be read or is not a maze file
+	 */
+	public static Maze load(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			while (header.hasRemaining()) {
+				if (channel.read(header) < 0) {
+					throw new IOException("not a maze file: " + file);
 				}
 			}
+			header.flip();
+			if (header.getInt() != FILE_MAGIC) {
+				throw new IOException("not a maze file: " + file);
+			}
+			int version = header.getInt();
+			if (version != FILE_VERSION) {
+				throw new IOException("unsupported maze file version " + version + ": " + file);
+			}
+			int width = header.getInt() + 1;
+			int height = header.getInt() + 1;
+			long randomSeed = header.getLong();
+			int sparcity = header.getInt();
+			int minimumWeight = header.getInt();
+			int maximumWeight = header.getInt();
+			long expectedSize = FILE_HEADER_BYTES + 8L * (2L * PackedMazeStorage.wallWords(width, height)
+					+ PackedMazeStorage.horizontalWords(width, height) + PackedMazeStorage.verticalWords(width, height));
+			if (channel.size() != expectedSize) {
+				throw new IOException("maze file has the wrong size: " + file);
+			}
+			MazeStorage storage = new MappedMazeStorage(channel, FILE_HEADER_BYTES, width, height);
+			return new Maze(width, height, randomSeed, sparcity, minimumWeight, maximumWeight, storage);
 		}
 	}
 	
-	private boolean possibleToExtend(int row, int col, int currWall) {
-		if (wallIndex[row][col + 1] != currWall) {
+	/**
+	 * Write this maze to a file that load can open.  An existing file
+	 * is replaced.
+	 * 
+	 * @param file
+	 * @throws IOException
+	 */
+	public void save(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE,
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			writeHeader(channel, getMazeWidth(), getMazeHeight(), randomSeed, sparcity, minimumWeight, maximumWeight);
+			storage.writeTo(channel);
+		}
+	}
+	
+	/* Write the header of a maze file at the start of the channel, and leave the position after it */
+	static void writeHeader(FileChannel channel, int mazeWidth, int mazeHeight, long randomSeed,
+			int sparcity, int minimumWeight, int maximumWeight) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(FILE_MAGIC);
+		header.putInt(FILE_VERSION);
+		header.putInt(mazeWidth);
+		header.putInt(mazeHeight);
+		header.putLong(randomSeed);
+		header.putInt(sparcity);
+		header.putInt(minimumWeight);
+		header.putInt(maximumWeight);
+		header.putInt(0);
+		header.flip();
+		channel.position(0);
+		while (header.hasRemaining()) {
+			channel.write(header);
+		}
+	}
+	
+	/*
+	 * Start a new wall at the post (row, col) and extend it one random
+	 * segment at a time until it runs into a different wall.  If the end
+	 * of the wall gets boxed in by its own posts, back up along the wall
+	 * to the most recent post that can still be extended.  Every step
+	 * either draws a segment or throws away a post that is boxed in, so
+	 * drawing all of the walls takes time proportional to the size of
+	 * the maze.
+	 */
+	private void drawFrom(int row, int col) {
+		int size = 0;
+		int posts = 0;
+		addToWall(row, col, posts++);
+		while (true) {
+			if (possibleToExtend(row, col)) {
+				if (size == wallStack.length) {
+					wallStack = Arrays.copyOf(wallStack, size * 2);
+				}
+				wallStack[size++] = row * width + col;
+				// pick one of the directions that does not run into this same wall
+				boolean right = !bit(postInWall, row, col + 1);
+				boolean left = !bit(postInWall, row, col - 1);
+				boolean up = !bit(postInWall, row - 1, col);
+				boolean down = !bit(postInWall, row + 1, col);
+				int choices = (right ? 1 : 0) + (left ? 1 : 0) + (up ? 1 : 0) + (down ? 1 : 0);
+				int choice = choices == 1 ? 0 : random.nextInt(choices);
+				if (right && choice-- == 0) {  // to right
+					packed.setWallToRight(row, col, true);
+					col++;
+				} else if (left && choice-- == 0) {  // to left
+					packed.setWallToRight(row, col - 1, true);
+					col--;
+				} else if (up && choice-- == 0) {  // up
+					packed.setWallDown(row - 1, col, true);
+					row--;
+				} else {  //down
+					packed.setWallDown(row, col, true);
+					row++;
+				}
+				boolean joined = bit(postUsed, row, col);
+				addToWall(row, col, posts++);
+				if (joined) {  // joined another wall, so this one is finished
+					break;
+				}
+			} else {  // no current extension possible
+				if (size == 0) {
+					break;
+				}
+				size--;
+				row = wallStack[size] / width;
+				col = wallStack[size] % width;
+			}
+		}
+		for (int i = 0; i < posts; i++) {  // the next wall starts out empty
+			clearBit(postInWall, wallPosts[i] / width, wallPosts[i] % width);
+		}
+	}
+	
+	private void addToWall(int row, int col, int posts) {
+		if (posts == wallPosts.length) {
+			wallPosts = Arrays.copyOf(wallPosts, posts * 2);
+		}
+		wallPosts[posts] = row * width + col;
+		setBit(postUsed, row, col);
+		setBit(postInWall, row, col);
+	}
+	
+	/* Fisher-Yates shuffle of the first count values, using our seeded random */
+	private void shuffle(int[] values, int count) {
+		for (int i = count - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int swap = values[i];
+			values[i] = values[j];
+			values[j] = swap;
+		}
+	}
+	
+	private boolean possibleToExtend(int row, int col) {
+		if ( !bit(postInWall, row, col + 1) ) {
 			return true;
 		}
-		if (wallIndex[row][col - 1] != currWall) {
+		if ( !bit(postInWall, row, col - 1) ) {
 			return true;
 		}
-		if (wallIndex[row + 1][col] != currWall) {
+		if ( !bit(postInWall, row + 1, col) ) {
 			return true;
 		}
-		if (wallIndex[row - 1][col] != currWall) {
+		if ( !bit(postInWall, row - 1, col) ) {
 			return true;
 		}
 		return false;
 	}
 
+	private boolean bit(long[] bits, int row, int col) {
+		return PackedMazeStorage.bit(bits, postWordsPerRow, row, col);
+	}
+
+	private void setBit(long[] bits, int row, int col) {
+		PackedMazeStorage.setBit(bits, postWordsPerRow, row, col);
+	}
+
+	private void clearBit(long[] bits, int row, int col) {
+		PackedMazeStorage.clearBit(bits, postWordsPerRow, row, col);
+	}
+
 	/** Returns the width of this maze.  (This is the width
 	 * of the grid of junctures.)
 	 * @return width of maze
@@ -211,13 +455,67 @@ public class Maze {
 		return height - 1;
 	}
 
+	/** Returns the seed this maze was generated from.  (Passing it
+	 * to the constructor again gives the same maze.)
+	 * @return random seed
+	 */
+	public long getRandomSeed() {
+		return randomSeed;
+	}
+
+	/** Returns the sparcity this maze was generated with.
+	 * @return value from 0 to 100
+	 */
+	public int getSparcity() {
+		return sparcity;
+	}
+
+	/* The walls and weights, in wall grid coordinates */
+	MazeStorage getStorage() {
+		return storage;
+	}
+
+	/** Returns the smallest weight between any two adjacent junctures
+	 * in this maze.  (A 1 x 1 maze has no weights at all; 1 is returned.)
+	 * @return a positive integer
+	 */
+	public int getMinimumWeight() {
+		return minimumWeight == Integer.MAX_VALUE ? 1 : minimumWeight;
+	}
+
+	/** Returns the largest weight between any two adjacent junctures
+	 * in this maze.  (A 1 x 1 maze has no weights at all; 1 is returned.)
+	 * @return a positive integer
+	 */
+	public int getMaximumWeight() {
+		return maximumWeight == 0 ? 1 : maximumWeight;
+	}
+
 	/** Returns true if there is a wall above the given juncture,
 	 * false otherwise.
 	 * @param juncture
 	 * @return true if there is a wall above this juncture
 	 */
 	public boolean isWallAbove(Juncture juncture) {
-		return wallToRight[juncture.getY()][juncture.getX()];
+		return isWallAbove(juncture.getX(), juncture.getY());
+	}
+
+	/** Same as isWallAbove(new Juncture(x, y)), without creating a Juncture.
+	 * @param x
+	 * @param y
+	 * @return true if there is a wall above juncture (x, y)
+	 */
+	public boolean isWallAbove(int x, int y) {
+		return storage.isWallToRight(y, x);
+	}
+
+	/** Same as isWallAbove(Juncture.unpack(id)), without creating a Juncture.
+	 * 
+	 * @param id a juncture id from Juncture.pack
+	 * @return true if there is a wall above the juncture
+	 */
+	public boolean isWallAbove(long id) {
+		return isWallAbove(Juncture.unpackX(id), Juncture.unpackY(id));
 	}
 
 	/** Returns true if there is a wall below the given juncture,
@@ -226,7 +524,25 @@ public class Maze {
 	 * @return true if there is a wall below this juncture
 	 */
 	public boolean isWallBelow(Juncture juncture) {
-		return wallToRight[juncture.getY()+ 1][juncture.getX()];
+		return isWallBelow(juncture.getX(), juncture.getY());
+	}
+
+	/** Same as isWallBelow(new Juncture(x, y)), without creating a Juncture.
+	 * @param x
+	 * @param y
+	 * @return true if there is a wall below juncture (x, y)
+	 */
+	public boolean isWallBelow(int x, int y) {
+		return storage.isWallToRight(y + 1, x);
+	}
+
+	/** Same as isWallBelow(Juncture.unpack(id)), without creating a Juncture.
+	 * 
+	 * @param id a juncture id from Juncture.pack
+	 * @return true if there is a wall below the juncture
+	 */
+	public boolean isWallBelow(long id) {
+		return isWallBelow(Juncture.unpackX(id), Juncture.unpackY(id));
 	}
 
 	/** Returns true if there is a wall to the left of the 
@@ -235,7 +551,25 @@ public class Maze {
 	 * @return true if there is a wall to the left of this juncture
 	 */
 	public boolean isWallToLeft(Juncture juncture) {
-		return wallDown[juncture.getY()][juncture.getX()];
+		return isWallToLeft(juncture.getX(), juncture.getY());
+	}
+
+	/** Same as isWallToLeft(new Juncture(x, y)), without creating a Juncture.
+	 * @param x
+	 * @param y
+	 * @return true if there is a wall to the left of juncture (x, y)
+	 */
+	public boolean isWallToLeft(int x, int y) {
+		return storage.isWallDown(y, x);
+	}
+
+	/** Same as isWallToLeft(Juncture.unpack(id)), without creating a Juncture.
+	 * 
+	 * @param id a juncture id from Juncture.pack
+	 * @return true if there is a wall to the left of the juncture
+	 */
+	public boolean isWallToLeft(long id) {
+		return isWallToLeft(Juncture.unpackX(id), Juncture.unpackY(id));
 	}
 
 	/** Returns true if there is a wall to the right of the 
@@ -244,7 +578,25 @@ public class Maze {
 	 * @return true if there is a wall to the right of this juncture
 	 */
 	public boolean isWallToRight(Juncture juncture) {
-		return wallDown[juncture.getY()][juncture.getX() + 1];
+		return isWallToRight(juncture.getX(), juncture.getY());
+	}
+
+	/** Same as isWallToRight(new Juncture(x, y)), without creating a Juncture.
+	 * @param x
+	 * @param y
+	 * @return true if there is a wall to the right of juncture (x, y)
+	 */
+	public boolean isWallToRight(int x, int y) {
+		return storage.isWallDown(y, x + 1);
+	}
+
+	/** Same as isWallToRight(Juncture.unpack(id)), without creating a Juncture.
+	 * 
+	 * @param id a juncture id from Juncture.pack
+	 * @return true if there is a wall to the right of the juncture
+	 */
+	public boolean isWallToRight(long id) {
+		return isWallToRight(Juncture.unpackX(id), Juncture.unpackY(id));
 	}
 
 	/** Returns the weight between this juncture and the one above.
@@ -253,7 +605,26 @@ public class Maze {
 	 * @return a positive integer
 	 */
 	public int getWeightAbove(Juncture juncture) {
-		return horizontalWeights[juncture.getY() - 1][juncture.getX()];
+		return getWeightAbove(juncture.getX(), juncture.getY());
+	}
+
+	/** Same as getWeightAbove(new Juncture(x, y)), without creating a Juncture.
+	 * 
+	 * @param x
+	 * @param y
+	 * @return a positive integer
+	 */
+	public int getWeightAbove(int x, int y) {
+		return storage.getHorizontalWeight(y - 1, x);
+	}
+
+	/** Same as getWeightAbove(Juncture.unpack(id)), without creating a Juncture.
+	 * 
+	 * @param id a juncture id from Juncture.pack
+	 * @return a positive integer
+	 */
+	public int getWeightAbove(long id) {
+		return getWeightAbove(Juncture.unpackX(id), Juncture.unpackY(id));
 	}
 	
 	/** Returns the weight between this juncture and the one below.
@@ -262,7 +633,26 @@ public class Maze {
 	 * @return a positive integer
 	 */
 	public int getWeightBelow(Juncture juncture) {
-		return horizontalWeights[juncture.getY()][juncture.getX()];
+		return getWeightBelow(juncture.getX(), juncture.getY());
+	}
+
+	/** Same as getWeightBelow(new Juncture(x, y)), without creating a Juncture.
+	 * 
+	 * @param x
+	 * @param y
+	 * @return a positive integer
+	 */
+	public int getWeightBelow(int x, int y) {
+		return storage.getHorizontalWeight(y, x);
+	}
+
+	/** Same as getWeightBelow(Juncture.unpack(id)), without creating a Juncture.
+	 * 
+	 * @param id a juncture id from Juncture.pack
+	 * @return a positive integer
+	 */
+	public int getWeightBelow(long id) {
+		return getWeightBelow(Juncture.unpackX(id), Juncture.unpackY(id));
 	}
 
 	/** Returns the weight between this juncture and the one to its
@@ -272,7 +662,26 @@ public class Maze {
 	 * @return a positive integer
 	 */
 	public int getWeightToLeft(Juncture juncture) {
-		return verticalWeights[juncture.getY()][juncture.getX() - 1];
+		return getWeightToLeft(juncture.getX(), juncture.getY());
+	}
+
+	/** Same as getWeightToLeft(new Juncture(x, y)), without creating a Juncture.
+	 * 
+	 * @param x
+	 * @param y
+	 * @return a positive integer
+	 */
+	public int getWeightToLeft(int x, int y) {
+		return storage.getVerticalWeight(y, x - 1);
+	}
+
+	/** Same as getWeightToLeft(Juncture.unpack(id)), without creating a Juncture.
+	 * 
+	 * @param id a juncture id from Juncture.pack
+	 * @return a positive integer
+	 */
+	public int getWeightToLeft(long id) {
+		return getWeightToLeft(Juncture.unpackX(id), Juncture.unpackY(id));
 	}
 	
 	/** Returns the weight between this juncture and the one to its
@@ -282,6 +691,25 @@ public class Maze {
 	 * @return a positive integer
 	 */
 	public int getWeightToRight(Juncture juncture) {
-		return	verticalWeights[juncture.getY()][juncture.getX()];
+		return getWeightToRight(juncture.getX(), juncture.getY());
+	}
+
+	/** Same as getWeightToRight(new Juncture(x, y)), without creating a Juncture.
+	 * 
+	 * @param x
+	 * @param y
+	 * @return a positive integer
+	 */
+	public int getWeightToRight(int x, int y) {
+		return storage.getVerticalWeight(y, x);
+	}
+
+	/** Same as getWeightToRight(Juncture.unpack(id)), without creating a Juncture.
+	 * 
+	 * @param id a juncture id from Juncture.pack
+	 * @return a positive integer
+	 */
+	public int getWeightToRight(long id) {
+		return getWeightToRight(Juncture.unpackX(id), Juncture.unpackY(id));
 	}
-}
\ No newline at end of file
+}
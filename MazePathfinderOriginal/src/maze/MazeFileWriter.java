@@ -0,0 +1,155 @@
+package maze;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * <P>Writes a maze file in the format Maze.save writes and Maze.load
+ * reads, one row at a time.  Each of the four arrays is a separate
+ * region of the file, so only the row being filled in of each array is
+ * in memory.  Rows must be filled in from top to bottom.</P>
+ */
+class MazeFileWriter implements MazeSink, Closeable {
+
+	private final FileChannel channel;
+	private final int mazeWidth, mazeHeight;
+	private final long randomSeed;
+	private final int sparcity;
+	private final long fileSize;
+	private final Region wallToRight, wallDown, horizontalWeights, verticalWeights;
+	private int minimumWeight = Integer.MAX_VALUE;
+	private int maximumWeight;
+
+	/* One array of the file, and the row of it being filled in */
+	private class Region {
+		final long start;            // file position of row 0
+		final int rows;
+		final long[] words;          // the row being filled in
+		int row = -1;
+
+		Region(long start, int rows, int wordsPerRow) {
+			this.start = start;
+			this.rows = rows;
+			words = new long[wordsPerRow];
+		}
+
+		long[] row(int row) {
+			if (row != this.row) {
+				if (row < this.row || row >= rows) {
+					throw new IllegalStateException("row " + row + " can not be written now");
+				}
+				flush();
+				this.row = row;
+			}
+			return words;
+		}
+
+		void flush() {
+			if (row == -1) {
+				return;
+			}
+			ByteBuffer bytes = ByteBuffer.allocate(8 * words.length).order(ByteOrder.LITTLE_ENDIAN);
+			bytes.asLongBuffer().put(words);
+			long position = start + 8L * row * words.length;
+			try {
+				while (bytes.hasRemaining()) {
+					position += channel.write(bytes, position);
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			Arrays.fill(words, 0L);
+			row = -1;
+		}
+	}
+
+	/**
+	 * @param file file to create or replace
+	 * @param mazeWidth width of the grid of junctures
+	 * @param mazeHeight height of the grid of junctures
+	 * @param randomSeed recorded in the header
+	 * @param sparcity recorded in the header
+	 * @throws IOException
+	 */
+	MazeFileWriter(Path file, int mazeWidth, int mazeHeight, long randomSeed, int sparcity) throws IOException {
+		this.mazeWidth = mazeWidth;
+		this.mazeHeight = mazeHeight;
+		this.randomSeed = randomSeed;
+		this.sparcity = sparcity;
+		int width = mazeWidth + 1;
+		int height = mazeHeight + 1;
+		long position = Maze.FILE_HEADER_BYTES;
+		wallToRight = new Region(position, height, PackedMazeStorage.wallWordsPerRow(width));
+		position += 8L * PackedMazeStorage.wallWords(width, height);
+		wallDown = new Region(position, height, PackedMazeStorage.wallWordsPerRow(width));
+		position += 8L * PackedMazeStorage.wallWords(width, height);
+		horizontalWeights = new Region(position, Math.max(height - 2, 0), PackedMazeStorage.horizontalWordsPerRow(width));
+		position += 8L * PackedMazeStorage.horizontalWords(width, height);
+		verticalWeights = new Region(position, height - 1, PackedMazeStorage.verticalWordsPerRow(width));
+		position += 8L * PackedMazeStorage.verticalWords(width, height);
+		fileSize = position;
+		channel = FileChannel.open(file, StandardOpenOption.WRITE,
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+	}
+
+	@Override
+	public void setWallToRight(int row, int col, boolean wall) {
+		setBit(wallToRight.row(row), col, wall);
+	}
+
+	@Override
+	public void setWallDown(int row, int col, boolean wall) {
+		setBit(wallDown.row(row), col, wall);
+	}
+
+	@Override
+	public void setHorizontalWeight(int row, int col, int weight) {
+		setNibble(horizontalWeights.row(row), col, weight);
+	}
+
+	@Override
+	public void setVerticalWeight(int row, int col, int weight) {
+		setNibble(verticalWeights.row(row), col, weight);
+	}
+
+	private static void setBit(long[] words, int col, boolean wall) {
+		if (wall) {
+			words[col >>> 6] |= 1L << col;
+		} else {
+			words[col >>> 6] &= ~(1L << col);
+		}
+	}
+
+	private void setNibble(long[] words, int col, int weight) {
+		int shift = (col & 15) << 2;
+		words[col >>> 4] = (words[col >>> 4] & ~(15L << shift)) | ((long)weight << shift);
+		minimumWeight = Math.min(minimumWeight, weight);
+		maximumWeight = Math.max(maximumWeight, weight);
+	}
+
+	/** Write the last rows and the header, and close the file. */
+	@Override
+	public void close() throws IOException {
+		try {
+			wallToRight.flush();
+			wallDown.flush();
+			horizontalWeights.flush();
+			verticalWeights.flush();
+			if (channel.size() < fileSize) {              //rows that were never set are left as zeros
+				channel.write(ByteBuffer.allocate(1), fileSize - 1);
+			}
+			Maze.writeHeader(channel, mazeWidth, mazeHeight, randomSeed, sparcity, minimumWeight, maximumWeight);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		} finally {
+			channel.close();
+		}
+	}
+}
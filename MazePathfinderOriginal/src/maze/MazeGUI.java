@@ -32,8 +32,8 @@ import graph.MazeGraph;
  * <P>The MazeGUI class allows the user to create
  * and display mazes.  It relies on an underlying 
  * MazeGraph, which stores the maze as a Graph, and 
- * can perform various algorithms (DFS, BFS, and 
- * Dijsktra.)</P>
+ * can perform various algorithms (DFS, BFS, 
+ * Dijsktra and A*.)</P>
  * 
  */
 public class MazeGUI {
@@ -54,6 +54,7 @@ public class MazeGUI {
 	private JButton DFSButton;
 	private JButton BFSButton;
 	private JButton DijkstraButton;
+	private JButton AStarButton;
 	private JSlider speedSlider;
 	private JSlider densitySlider;
 	private JCheckBox showWeights;
@@ -82,6 +83,7 @@ public class MazeGUI {
 		heightLabel = new JLabel("Height");
 		drawButton = new JButton("New Maze");
 		DijkstraButton = new JButton("Dijkstra");
+		AStarButton = new JButton("A*");
 		densitySlider = new JSlider();
 		DFSButton = new JButton("DFS");
 		BFSButton = new JButton("BFS");
@@ -109,6 +111,21 @@ public class MazeGUI {
 			}
 		});
 
+		AStarButton.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent arg0) {
+				changeButtonStatus(false);
+				showWeights.setSelected(true);
+				Thread thread = new Thread(new Runnable() {
+					public void run() {
+						theGraph.DoAStar(new Juncture(0,0), new Juncture(maze.getMazeWidth() - 1, maze.getMazeHeight() - 1),
+								theGraph.manhattanHeuristic());
+					}
+				});
+				thread.start();
+			}
+		});
+
 		DFSButton.addActionListener(new ActionListener() {
 			@Override
 			public void actionPerformed(ActionEvent arg0) {
@@ -191,6 +208,7 @@ public class MazeGUI {
 		controlsPanel.add(DFSButton);
 		controlsPanel.add(BFSButton);
 		controlsPanel.add(DijkstraButton);
+		controlsPanel.add(AStarButton);
 		controlsPanel.add(new JLabel("   Speed"));
 		controlsPanel.add(speedSlider);
 
@@ -230,11 +248,11 @@ public class MazeGUI {
 				g.setColor(WALL_COLOR);
 				for (int row = 0; row < height - 1; row++) {
 					for (int col = 0; col < width - 1; col++) {
-						if (maze.isWallAbove(new Juncture(col, row))) {
+						if (maze.isWallAbove(col, row)) {
 							drawHorizontalLine(g, (int)((col + 1) * widthMultiplier), (int)((row + 1) * heightMultiplier),
 									(int)((col + 2) * widthMultiplier));						
 						}
-						if (maze.isWallToLeft(new Juncture(col, row))) {
+						if (maze.isWallToLeft(col, row)) {
 							drawVerticalLine(g, (int)((col + 1) * widthMultiplier),  (int)((row + 1) * heightMultiplier),
 									(int)((row + 2) * heightMultiplier));
 						}
@@ -248,14 +266,14 @@ public class MazeGUI {
 					}
 				} 
 				for (int row = 0; row < height - 1; row++) {
-					if (maze.isWallToRight(new Juncture(width - 2, row))) {
+					if (maze.isWallToRight(width - 2, row)) {
 						int col = width - 1;
 						drawVerticalLine(g, (int)((col + 1) * widthMultiplier),  (int)((row + 1) * heightMultiplier),
 								(int)((row + 2) * heightMultiplier));
 					}
 				}
 				for (int col = 0; col < width - 1; col++) {
-					if (maze.isWallBelow(new Juncture(col, height - 2))) {
+					if (maze.isWallBelow(col, height - 2)) {
 						int row = height - 1;
 						drawHorizontalLine(g, (int)((col + 1) * widthMultiplier), (int)((row + 1) * heightMultiplier),
 								(int)((col + 2) * widthMultiplier));
@@ -266,17 +284,15 @@ public class MazeGUI {
 					g.setColor(Color.BLACK);
 					for (int row = 0; row < height - 2; row++) {
 						for (int col = 0; col < width - 1 ; col++) {
-							Juncture juncture = new Juncture(col, row);
-							if (!maze.isWallBelow(juncture)) {
-								g.drawString(String.valueOf(maze.getWeightBelow(juncture)), (int)((col + 1.38) * widthMultiplier), (int)((row + 2.2) * heightMultiplier));
+							if (!maze.isWallBelow(col, row)) {
+								g.drawString(String.valueOf(maze.getWeightBelow(col, row)), (int)((col + 1.38) * widthMultiplier), (int)((row + 2.2) * heightMultiplier));
 							}
 						}
 					}
 					for (int row = 0; row < height - 1; row++) {
 						for (int col = 0; col < width - 2; col++) {
-							Juncture juncture = new Juncture(col, row);
-							if (!maze.isWallToRight(juncture)) {
-								g.drawString(String.valueOf(maze.getWeightToRight(juncture)), (int)((col + 1.9) * widthMultiplier), (int)((row + 1.68) * heightMultiplier));
+							if (!maze.isWallToRight(col, row)) {
+								g.drawString(String.valueOf(maze.getWeightToRight(col, row)), (int)((col + 1.9) * widthMultiplier), (int)((row + 1.68) * heightMultiplier));
 							}
 						}
 					}
@@ -304,6 +320,7 @@ public class MazeGUI {
 		BFSButton.setEnabled(setting);
 		drawButton.setEnabled(setting);
 		DijkstraButton.setEnabled(setting);
+		AStarButton.setEnabled(setting);
 	}
 
 	private int getSliderDelayMS() {
@@ -364,6 +381,17 @@ public class MazeGUI {
 				}
 			}
 
+			@Override
+			public void notifyAStarVertexExpanded(Juncture p, Integer pathCost) {
+				colorIndex[p.getY()][p.getX()] = 6;
+				mazePanel.updateUI();
+				try {
+					Thread.sleep(getSliderDelayMS());
+				} catch(InterruptedException e) {
+
+				}
+			}
+
 			@Override
 			public void notifyDijkstraIsOver(List<Juncture> path) {
 				for (int i = 0; i < maze.getMazeHeight(); i++) {
@@ -0,0 +1,18 @@
+package maze;
+
+/**
+ * <P>Something a maze generator can draw walls and weights into, in
+ * wall grid coordinates (see MazeStorage).  Some sinks write straight to
+ * a file, so rows have to be filled in from top to bottom: once a row
+ * has been set, rows above it may no longer be changed.</P>
+ */
+interface MazeSink {
+
+	void setWallToRight(int row, int col, boolean wall);
+
+	void setWallDown(int row, int col, boolean wall);
+
+	void setHorizontalWeight(int row, int col, int weight);
+
+	void setVerticalWeight(int row, int col, int weight);
+}
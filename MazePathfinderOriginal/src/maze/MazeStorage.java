@@ -0,0 +1,49 @@
+package maze;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * <P>Where a Maze keeps its walls and weights.  The coordinates are
+ * those of the wall grid (one larger than the grid of junctures in
+ * each direction), the same ones the Maze accessors translate to.</P>
+ *
+ * <P>Every implementation uses the same layout, the one PackedMazeStorage
+ * keeps in memory and Maze.save writes to disk: walls one bit each and
+ * weights four bits each, in little-endian longs, with every row starting
+ * on a new long.</P>
+ */
+interface MazeStorage {
+
+	/** @return true if the wall segment to the right of post (row, col) is there */
+	boolean isWallToRight(int row, int col);
+
+	/** @return true if the wall segment below post (row, col) is there */
+	boolean isWallDown(int row, int col);
+
+	/**
+	 * @return bits 64 * word to 64 * word + 63 of row of the walls to the
+	 * right, bit col % 64 being isWallToRight(row, col).  Bits past the
+	 * end of the row are undefined.
+	 */
+	long getWallToRightWord(int row, int word);
+
+	/** @return the same as getWallToRightWord, for the walls down */
+	long getWallDownWord(int row, int word);
+
+	/** @return weight between juncture (col, row) and juncture (col, row + 1) */
+	int getHorizontalWeight(int row, int col);
+
+	/** @return weight between juncture (col, row) and juncture (col + 1, row) */
+	int getVerticalWeight(int row, int col);
+
+	/**
+	 * Write the wall bits and weights, in that order (walls to the right,
+	 * walls down, horizontal weights, vertical weights), at the channel's
+	 * current position.
+	 *
+	 * @param channel
+	 * @throws IOException
+	 */
+	void writeTo(FileChannel channel) throws IOException;
+}
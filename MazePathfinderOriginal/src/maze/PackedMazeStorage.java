@@ -0,0 +1,206 @@
+package maze;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * <P>Walls and weights kept on the heap in long[] words.  A wall is one
+ * bit, so bit (row, col) is bit (col % 64) of word
+ * row * wallWordsPerRow(width) + col / 64.  Weights are 1 to 9, so they
+ * are kept in 4 bits each, 16 to a long, and again every row starts on
+ * a new long.</P>
+ */
+class PackedMazeStorage implements MazeStorage, MazeSink {
+
+	private final int wallWordsPerRow, horizontalWordsPerRow, verticalWordsPerRow;
+	private final long[] wallToRight;
+	private final long[] wallDown;
+	private final long[] horizontalWeights;     // (height - 2) x (width - 1) weights
+	private final long[] verticalWeights;       // (height - 1) x (width - 2) weights
+
+	/**
+	 * Create storage with no walls and every weight 0.
+	 *
+	 * @param width width of the wall grid
+	 * @param height height of the wall grid
+	 */
+	PackedMazeStorage(int width, int height) {
+		wallWordsPerRow = wallWordsPerRow(width);
+		horizontalWordsPerRow = horizontalWordsPerRow(width);
+		verticalWordsPerRow = verticalWordsPerRow(width);
+		wallToRight = new long[wallWords(width, height)];
+		wallDown = new long[wallWords(width, height)];
+		horizontalWeights = new long[horizontalWords(width, height)];
+		verticalWeights = new long[verticalWords(width, height)];
+	}
+
+	static int wallWordsPerRow(int width) {
+		return (width + 63) >>> 6;
+	}
+
+	static int horizontalWordsPerRow(int width) {
+		return (width - 1 + 15) >>> 4;
+	}
+
+	static int verticalWordsPerRow(int width) {
+		return (Math.max(width - 2, 0) + 15) >>> 4;
+	}
+
+	static int wallWords(int width, int height) {
+		return height * wallWordsPerRow(width);
+	}
+
+	static int horizontalWords(int width, int height) {
+		return Math.max(height - 2, 0) * horizontalWordsPerRow(width);
+	}
+
+	static int verticalWords(int width, int height) {
+		return (height - 1) * verticalWordsPerRow(width);
+	}
+
+	static boolean bit(long[] bits, int wordsPerRow, int row, int col) {
+		return (bits[row * wordsPerRow + (col >>> 6)] & (1L << col)) != 0;
+	}
+
+	static void setBit(long[] bits, int wordsPerRow, int row, int col) {
+		bits[row * wordsPerRow + (col >>> 6)] |= 1L << col;
+	}
+
+	static void clearBit(long[] bits, int wordsPerRow, int row, int col) {
+		bits[row * wordsPerRow + (col >>> 6)] &= ~(1L << col);
+	}
+
+	@Override
+	public boolean isWallToRight(int row, int col) {
+		return bit(wallToRight, wallWordsPerRow, row, col);
+	}
+
+	@Override
+	public boolean isWallDown(int row, int col) {
+		return bit(wallDown, wallWordsPerRow, row, col);
+	}
+
+	@Override
+	public long getWallToRightWord(int row, int word) {
+		return wallToRight[row * wallWordsPerRow + word];
+	}
+
+	@Override
+	public long getWallDownWord(int row, int word) {
+		return wallDown[row * wallWordsPerRow + word];
+	}
+
+	@Override
+	public void setWallToRight(int row, int col, boolean wall) {
+		if (wall) {
+			setBit(wallToRight, wallWordsPerRow, row, col);
+		} else {
+			clearBit(wallToRight, wallWordsPerRow, row, col);
+		}
+	}
+
+	@Override
+	public void setWallDown(int row, int col, boolean wall) {
+		if (wall) {
+			setBit(wallDown, wallWordsPerRow, row, col);
+		} else {
+			clearBit(wallDown, wallWordsPerRow, row, col);
+		}
+	}
+
+	@Override
+	public int getHorizontalWeight(int row, int col) {
+		return nibble(horizontalWeights, horizontalWordsPerRow, row, col);
+	}
+
+	@Override
+	public int getVerticalWeight(int row, int col) {
+		return nibble(verticalWeights, verticalWordsPerRow, row, col);
+	}
+
+	@Override
+	public void setHorizontalWeight(int row, int col, int weight) {
+		setNibble(horizontalWeights, horizontalWordsPerRow, row, col, weight);
+	}
+
+	@Override
+	public void setVerticalWeight(int row, int col, int weight) {
+		setNibble(verticalWeights, verticalWordsPerRow, row, col, weight);
+	}
+
+	private static int nibble(long[] nibbles, int wordsPerRow, int row, int col) {
+		return (int)(nibbles[row * wordsPerRow + (col >>> 4)] >>> ((col & 15) << 2)) & 15;
+	}
+
+	private static void setNibble(long[] nibbles, int wordsPerRow, int row, int col, int value) {
+		int shift = (col & 15) << 2;
+		int word = row * wordsPerRow + (col >>> 4);
+		nibbles[word] = (nibbles[word] & ~(15L << shift)) | ((long)value << shift);
+	}
+
+	@Override
+	public void writeTo(FileChannel channel) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+		for (long[] words : new long[][] {wallToRight, wallDown, horizontalWeights, verticalWeights}) {
+			for (long word : words) {
+				if ( !buffer.hasRemaining() ) {
+					flush(buffer, channel);
+				}
+				buffer.putLong(word);
+			}
+		}
+		flush(buffer, channel);
+	}
+
+	/**
+	 * Write the words of any storage in this class's layout, one row at a
+	 * time, reading every wall and weight through the MazeStorage methods.
+	 *
+	 * @param storage walls and weights to write
+	 * @param width width of the wall grid
+	 * @param height height of the wall grid
+	 * @param channel
+	 * @throws IOException
+	 */
+	static void writeWords(MazeStorage storage, int width, int height, FileChannel channel) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+		for (int array = 0; array < 4; array++) {
+			int rows = array < 2 ? height : array == 2 ? height - 2 : height - 1;
+			int cols = array < 2 ? width : array == 2 ? width - 1 : width - 2;
+			int wordsPerRow = array < 2 ? wallWordsPerRow(width)
+					: array == 2 ? horizontalWordsPerRow(width) : verticalWordsPerRow(width);
+			int perWord = array < 2 ? 64 : 16;
+			for (int row = 0; row < rows; row++) {
+				for (int w = 0; w < wordsPerRow; w++) {
+					long word = 0;
+					for (int i = 0, col = w * perWord; i < perWord && col < cols; i++, col++) {
+						if (array == 0) {
+							word |= storage.isWallToRight(row, col) ? 1L << i : 0;
+						} else if (array == 1) {
+							word |= storage.isWallDown(row, col) ? 1L << i : 0;
+						} else if (array == 2) {
+							word |= (long)storage.getHorizontalWeight(row, col) << (4 * i);
+						} else {
+							word |= (long)storage.getVerticalWeight(row, col) << (4 * i);
+						}
+					}
+					if ( !buffer.hasRemaining() ) {
+						flush(buffer, channel);
+					}
+					buffer.putLong(word);
+				}
+			}
+		}
+		flush(buffer, channel);
+	}
+
+	private static void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+}
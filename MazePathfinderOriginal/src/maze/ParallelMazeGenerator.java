@@ -0,0 +1,279 @@
+package maze;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <P>Generates a maze on several cores at once.  The maze is split into
+ * square tiles of tileSize x tileSize junctures, and each tile is carved
+ * into a perfect maze of its own (with a recursive backtracker) by a
+ * task on a ForkJoinPool.  The tiles are then stitched together by
+ * opening one passage across the border of each pair of neighbouring
+ * tiles in a spanning tree of the tiles, which makes the whole maze
+ * perfect: exactly one path between any two junctures.</P>
+ *
+ * <P>Every tile draws from its own SplittableRandom, seeded from the maze
+ * seed and the tile's index, so the maze depends only on the arguments
+ * and never on the number of threads or the order the tiles are
+ * carved in.</P>
+ *
+ * <P>The tile size is a multiple of 64 so that no two tiles ever share a
+ * word of the packed walls or weights, and the tiles can write straight
+ * into one PackedMazeStorage without locking.  The mazes look different
+ * from the ones the Maze constructor and EllerMazeGenerator draw (long
+ * winding passages, and the tile borders have only one opening each).</P>
+ */
+public class ParallelMazeGenerator {
+
+	/** A tile size that keeps each tile's work small but worth a task. */
+	public static final int DEFAULT_TILE_SIZE = 256;
+
+	private static final long TILE_SEED_STEP = 0x9E3779B97F4A7C15L;
+
+	private final int mazeHeight, mazeWidth, sparcity;
+	private final long randomSeed;
+	private final int tileSize, tilesAcross, tilesDown;
+
+	/**
+	 * @param mazeHeight
+	 * @param mazeWidth
+	 * @param sparcity value from 0 to 100, as for the Maze constructor
+	 * @param randomSeed the same seed gives the same maze every time
+	 */
+	public ParallelMazeGenerator(int mazeHeight, int mazeWidth, int sparcity, long randomSeed) {
+		this(mazeHeight, mazeWidth, sparcity, randomSeed, DEFAULT_TILE_SIZE);
+	}
+
+	/**
+	 * @param mazeHeight
+	 * @param mazeWidth
+	 * @param sparcity value from 0 to 100, as for the Maze constructor
+	 * @param randomSeed the same seed gives the same maze every time
+	 * @param tileSize width and height of a tile in junctures, a multiple of 64
+	 */
+	public ParallelMazeGenerator(int mazeHeight, int mazeWidth, int sparcity, long randomSeed, int tileSize) {
+		if (mazeHeight < 1 || mazeWidth < 1 || tileSize <= 0 || tileSize % 64 != 0) {
+			throw new IllegalArgumentException();
+		}
+		this.mazeHeight = mazeHeight;
+		this.mazeWidth = mazeWidth;
+		this.sparcity = sparcity;
+		this.randomSeed = randomSeed;
+		this.tileSize = tileSize;
+		tilesAcross = (mazeWidth + tileSize - 1) / tileSize;
+		tilesDown = (mazeHeight + tileSize - 1) / tileSize;
+	}
+
+	/**
+	 * Generate the maze on ForkJoinPool.commonPool(), which uses every
+	 * available core without starting any threads of its own.
+	 *
+	 * @return the maze
+	 */
+	public Maze generate() {
+		return generate(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Generate the maze on a pool of its own, which is shut down again
+	 * before returning.
+	 *
+	 * @param parallelism number of threads to carve tiles on
+	 * @return the maze
+	 */
+	public Maze generate(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException();
+		}
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			return generate(pool);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Generate the maze on a pool the caller keeps, so a program making
+	 * many mazes starts its threads once.  The maze is the same whatever
+	 * the pool.
+	 *
+	 * @param pool the pool to carve tiles on
+	 * @return the maze
+	 */
+	public Maze generate(ForkJoinPool pool) {
+		PackedMazeStorage storage = new PackedMazeStorage(mazeWidth + 1, mazeHeight + 1);
+		int tiles = tilesAcross * tilesDown;
+		int[] minimumWeights = new int[tiles];
+		int[] maximumWeights = new int[tiles];
+		pool.invoke(new CarveTiles(storage, 0, tiles, minimumWeights, maximumWeights));
+		stitch(storage);
+
+		int minimumWeight = Integer.MAX_VALUE;
+		int maximumWeight = 0;
+		for (int tile = 0; tile < tiles; tile++) {
+			minimumWeight = Math.min(minimumWeight, minimumWeights[tile]);
+			maximumWeight = Math.max(maximumWeight, maximumWeights[tile]);
+		}
+		return new Maze(mazeWidth + 1, mazeHeight + 1, randomSeed, sparcity, minimumWeight, maximumWeight, storage);
+	}
+
+	/* Carves the tiles first to last - 1, splitting the range in half until it is one tile */
+	private class CarveTiles extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final PackedMazeStorage storage;
+		private final int first, last;
+		private final int[] minimumWeights, maximumWeights;
+
+		CarveTiles(PackedMazeStorage storage, int first, int last, int[] minimumWeights, int[] maximumWeights) {
+			this.storage = storage;
+			this.first = first;
+			this.last = last;
+			this.minimumWeights = minimumWeights;
+			this.maximumWeights = maximumWeights;
+		}
+
+		@Override
+		protected void compute() {
+			if (last - first == 1) {
+				carve(storage, first, minimumWeights, maximumWeights);
+			} else {
+				int middle = (first + last) >>> 1;
+				invokeAll(new CarveTiles(storage, first, middle, minimumWeights, maximumWeights),
+						new CarveTiles(storage, middle, last, minimumWeights, maximumWeights));
+			}
+		}
+	}
+
+	/*
+	 * Draw the weights and a perfect maze inside one tile.  Only the walls
+	 * above and to the left of the tile's junctures (plus the outer wall on
+	 * the right and bottom of the maze) are touched, and only the weights
+	 * below and to the right of them, so tiles never write the same word.
+	 */
+	private void carve(PackedMazeStorage storage, int tile, int[] minimumWeights, int[] maximumWeights) {
+		SplittableRandom random = new SplittableRandom(randomSeed + (tile + 1) * TILE_SEED_STEP);
+		int left = (tile % tilesAcross) * tileSize;
+		int top = (tile / tilesAcross) * tileSize;
+		int tileWidth = Math.min(tileSize, mazeWidth - left);
+		int tileHeight = Math.min(tileSize, mazeHeight - top);
+		int minimumWeight = Integer.MAX_VALUE;
+		int maximumWeight = 0;
+
+		// every juncture starts walled in on all sides
+		for (int y = top; y < top + tileHeight; y++) {
+			for (int x = left; x < left + tileWidth; x++) {
+				storage.setWallToRight(y, x, true);
+				storage.setWallDown(y, x, true);
+				if (y < mazeHeight - 1) {
+					int weight = random.nextInt(9) + 1;
+					storage.setHorizontalWeight(y, x, weight);
+					minimumWeight = Math.min(minimumWeight, weight);
+					maximumWeight = Math.max(maximumWeight, weight);
+				}
+				if (x < mazeWidth - 1) {
+					int weight = random.nextInt(9) + 1;
+					storage.setVerticalWeight(y, x, weight);
+					minimumWeight = Math.min(minimumWeight, weight);
+					maximumWeight = Math.max(maximumWeight, weight);
+				}
+			}
+			if (left + tileWidth == mazeWidth) {
+				storage.setWallDown(y, mazeWidth, true);
+			}
+		}
+		if (top + tileHeight == mazeHeight) {
+			for (int x = left; x < left + tileWidth; x++) {
+				storage.setWallToRight(mazeHeight, x, true);
+			}
+		}
+		minimumWeights[tile] = minimumWeight;
+		maximumWeights[tile] = maximumWeight;
+
+		// recursive backtracker over the tile, cells numbered y * tileWidth + x from the tile's corner
+		int cells = tileWidth * tileHeight;
+		long[] visited = new long[(cells + 63) >>> 6];
+		int[] stack = new int[cells];
+		int[] choices = new int[4];
+		int size = 0;
+		int start = random.nextInt(cells);
+		visited[start >>> 6] |= 1L << start;
+		stack[size++] = start;
+		while (size > 0) {
+			int cell = stack[size - 1];
+			int x = cell % tileWidth;
+			int y = cell / tileWidth;
+			int count = 0;
+			if (y > 0 && (visited[(cell - tileWidth) >>> 6] & (1L << (cell - tileWidth))) == 0) {
+				choices[count++] = cell - tileWidth;
+			}
+			if (y < tileHeight - 1 && (visited[(cell + tileWidth) >>> 6] & (1L << (cell + tileWidth))) == 0) {
+				choices[count++] = cell + tileWidth;
+			}
+			if (x > 0 && (visited[(cell - 1) >>> 6] & (1L << (cell - 1))) == 0) {
+				choices[count++] = cell - 1;
+			}
+			if (x < tileWidth - 1 && (visited[(cell + 1) >>> 6] & (1L << (cell + 1))) == 0) {
+				choices[count++] = cell + 1;
+			}
+			if (count == 0) {
+				size--;
+				continue;
+			}
+			int next = choices[count == 1 ? 0 : random.nextInt(count)];
+			if (next == cell - tileWidth) {
+				storage.setWallToRight(top + y, left + x, false);
+			} else if (next == cell + tileWidth) {
+				storage.setWallToRight(top + y + 1, left + x, false);
+			} else if (next == cell - 1) {
+				storage.setWallDown(top + y, left + x, false);
+			} else {
+				storage.setWallDown(top + y, left + x + 1, false);
+			}
+			visited[next >>> 6] |= 1L << next;
+			stack[size++] = next;
+		}
+
+		// remove some walls inside the tile if sparcity is > 0, as many per juncture as the Maze constructor
+		if (sparcity > 0) {
+			for (int i = 0; i < cells * sparcity / 50.0; i++) {
+				int r = top + random.nextInt(tileHeight);
+				int c = left + random.nextInt(tileWidth);
+				if (random.nextBoolean() == false) {
+					if (c > left) {
+						storage.setWallDown(r, c, false);
+					}
+				} else if (r > top) {
+					storage.setWallToRight(r, c, false);
+				}
+			}
+		}
+	}
+
+	/*
+	 * Open one passage from every tile into the tile to its left or the tile
+	 * above it (the only choice in the first row and column), which joins
+	 * the tiles in a spanning tree.
+	 */
+	private void stitch(PackedMazeStorage storage) {
+		SplittableRandom random = new SplittableRandom(randomSeed);
+		for (int ty = 0; ty < tilesDown; ty++) {
+			for (int tx = 0; tx < tilesAcross; tx++) {
+				int left = tx * tileSize;
+				int top = ty * tileSize;
+				if (tx == 0 && ty == 0) {
+					continue;
+				}
+				if (ty == 0 || (tx > 0 && random.nextBoolean())) {
+					int y = top + random.nextInt(Math.min(tileSize, mazeHeight - top));
+					storage.setWallDown(y, left, false);
+				} else {
+					int x = left + random.nextInt(Math.min(tileSize, mazeWidth - left));
+					storage.setWallToRight(top, x, false);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,314 @@
+package maze;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <P>Walls and weights read from a tiled maze file, keeping only the most
+ * recently used tiles in memory.  This lets a Maze (and so MazeGraph,
+ * ImplicitMazeGraph and every search) work on a grid far larger than
+ * the heap.</P>
+ *
+ * <P>The file is split into square tiles of tileSize x tileSize posts.
+ * Each tile holds the walls to the right and below, and the horizontal
+ * and vertical weights, of its square in the same bit and nibble format
+ * as PackedMazeStorage, and every tile is the same size, so tile k
+ * starts at HEADER_BYTES + k * 8 * tileWords(tileSize).  The header is
+ * the same as Maze.save's except for the magic number, and the last int
+ * is the tile size.</P>
+ *
+ * <P>When a tile that is not in memory is needed, it is read from the
+ * file.  If the cache is full, the least recently used tile is thrown
+ * away (evicted) and its array is reused.  The hit, miss and eviction
+ * counts show how well the cache size fits the access pattern.</P>
+ *
+ * <P>All access is synchronized, so one TiledMazeStorage can be shared
+ * by several threads.</P>
+ */
+public class TiledMazeStorage implements MazeStorage, Closeable {
+
+	static final int FILE_MAGIC = 0x4D5A544C;    // "MZTL"
+	static final int FILE_VERSION = 1;
+	static final int HEADER_BYTES = 40;
+
+	/** A tile size that keeps a tile at 80 KB. */
+	public static final int DEFAULT_TILE_SIZE = 256;
+
+	private final FileChannel channel;
+	private final int mazeWidth, mazeHeight;
+	private final long randomSeed;
+	private final int sparcity, minimumWeight, maximumWeight;
+	private final int tileSize, tilesAcross;
+	private final ByteBuffer buffer;
+	private final LinkedHashMap<Integer, long[]> cache;
+	private long[] spareTile;                    // array of the tile evicted last, to read the next one into
+	private int lastKey = -1;                    // the tile used last, checked before the cache
+	private long[] lastTile;
+	private long hits, misses, evictions;
+
+	/**
+	 * Write any maze to a tiled maze file.
+	 *
+	 * @param maze the maze to write
+	 * @param file file to create or replace
+	 * @param tileSize width and height of a tile, a multiple of 64
+	 * @throws IOException
+	 */
+	public static void write(Maze maze, Path file, int tileSize) throws IOException {
+		MazeStorage storage = maze.getStorage();
+		int width = maze.getMazeWidth() + 1;
+		int height = maze.getMazeHeight() + 1;
+		try (TiledMazeWriter writer = new TiledMazeWriter(file, maze.getMazeWidth(), maze.getMazeHeight(),
+				tileSize, maze.getRandomSeed(), maze.getSparcity())) {
+			for (int row = 0; row < height; row++) {
+				for (int col = 0; col < width; col++) {
+					writer.setWallToRight(row, col, storage.isWallToRight(row, col));
+					writer.setWallDown(row, col, storage.isWallDown(row, col));
+					if (row < height - 2 && col < width - 1) {
+						writer.setHorizontalWeight(row, col, storage.getHorizontalWeight(row, col));
+					}
+					if (row < height - 1 && col < width - 2) {
+						writer.setVerticalWeight(row, col, storage.getVerticalWeight(row, col));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Open a tiled maze file.  Pass the result to the Maze constructor
+	 * to use it.
+	 *
+	 * @param file a file written by write
+	 * @param cachedTiles most tiles to keep in memory at once
+	 * @throws IOException if the file can not be read or is not a tiled maze file
+	 */
+	public TiledMazeStorage(Path file, int cachedTiles) throws IOException {
+		if (cachedTiles < 1) {
+			throw new IllegalArgumentException();
+		}
+		channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			while (header.hasRemaining()) {
+				if (channel.read(header) < 0) {
+					throw new IOException("not a tiled maze file: " + file);
+				}
+			}
+			header.flip();
+			if (header.getInt() != FILE_MAGIC) {
+				throw new IOException("not a tiled maze file: " + file);
+			}
+			int version = header.getInt();
+			if (version != FILE_VERSION) {
+				throw new IOException("unsupported tiled maze file version " + version + ": " + file);
+			}
+			mazeWidth = header.getInt();
+			mazeHeight = header.getInt();
+			randomSeed = header.getLong();
+			sparcity = header.getInt();
+			minimumWeight = header.getInt();
+			maximumWeight = header.getInt();
+			tileSize = header.getInt();
+			if (tileSize <= 0 || tileSize % 64 != 0 || mazeWidth < 1 || mazeHeight < 1) {
+				throw new IOException("tiled maze file has a bad header: " + file);
+			}
+			tilesAcross = (mazeWidth + 1 + tileSize - 1) / tileSize;
+			long tilesDown = (mazeHeight + 1 + tileSize - 1) / tileSize;
+			if (channel.size() != HEADER_BYTES + 8L * tileWords(tileSize) * tilesAcross * tilesDown) {
+				throw new IOException("tiled maze file has the wrong size: " + file);
+			}
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+		buffer = ByteBuffer.allocateDirect(8 * tileWords(tileSize)).order(ByteOrder.LITTLE_ENDIAN);
+		cache = new LinkedHashMap<Integer, long[]>(16, 0.75f, true) {     //access order, eldest is least recently used
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, long[]> eldest) {
+				if (size() > cachedTiles) {
+					spareTile = eldest.getValue();
+					evictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/* Where each of the four arrays starts inside a tile, in longs */
+	static int wallToRightOffset(int tileSize) {
+		return 0;
+	}
+
+	static int wallDownOffset(int tileSize) {
+		return tileSize * (tileSize >>> 6);
+	}
+
+	static int horizontalWeightOffset(int tileSize) {
+		return 2 * tileSize * (tileSize >>> 6);
+	}
+
+	static int verticalWeightOffset(int tileSize) {
+		return 2 * tileSize * (tileSize >>> 6) + tileSize * (tileSize >>> 4);
+	}
+
+	/** @return number of longs in one tile */
+	static int tileWords(int tileSize) {
+		return 2 * tileSize * (tileSize >>> 6) + 2 * tileSize * (tileSize >>> 4);
+	}
+
+	int getMazeWidth() {
+		return mazeWidth;
+	}
+
+	int getMazeHeight() {
+		return mazeHeight;
+	}
+
+	long getRandomSeed() {
+		return randomSeed;
+	}
+
+	int getSparcity() {
+		return sparcity;
+	}
+
+	int getMinimumWeight() {
+		return minimumWeight;
+	}
+
+	int getMaximumWeight() {
+		return maximumWeight;
+	}
+
+	/** @return number of times a tile was already in memory */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/** @return number of times a tile had to be read from the file */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/** @return number of tiles thrown away to make room for another */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	@Override
+	public synchronized boolean isWallToRight(int row, int col) {
+		return bit(wallToRightOffset(tileSize), row, col);
+	}
+
+	@Override
+	public synchronized boolean isWallDown(int row, int col) {
+		return bit(wallDownOffset(tileSize), row, col);
+	}
+
+	@Override
+	public synchronized long getWallToRightWord(int row, int word) {
+		return bitWord(wallToRightOffset(tileSize), row, word);
+	}
+
+	@Override
+	public synchronized long getWallDownWord(int row, int word) {
+		return bitWord(wallDownOffset(tileSize), row, word);
+	}
+
+	@Override
+	public synchronized int getHorizontalWeight(int row, int col) {
+		return nibble(horizontalWeightOffset(tileSize), row, col);
+	}
+
+	@Override
+	public synchronized int getVerticalWeight(int row, int col) {
+		return nibble(verticalWeightOffset(tileSize), row, col);
+	}
+
+	private boolean bit(int offset, int row, int col) {
+		long[] tile = tile(row, col);
+		int c = col % tileSize;
+		return (tile[offset + (row % tileSize) * (tileSize >>> 6) + (c >>> 6)] & (1L << c)) != 0;
+	}
+
+	/* A tile is a whole number of words wide, so a word of a row is never split between tiles */
+	private long bitWord(int offset, int row, int word) {
+		long[] tile = tile(row, word << 6);
+		int c = (word << 6) % tileSize;
+		return tile[offset + (row % tileSize) * (tileSize >>> 6) + (c >>> 6)];
+	}
+
+	private int nibble(int offset, int row, int col) {
+		long[] tile = tile(row, col);
+		int c = col % tileSize;
+		long word = tile[offset + (row % tileSize) * (tileSize >>> 4) + (c >>> 4)];
+		return (int)(word >>> ((c & 15) << 2)) & 15;
+	}
+
+	/* The tile holding post (row, col), read from the file if it is not cached */
+	private long[] tile(int row, int col) {
+		if (row < 0 || col < 0 || col / tileSize >= tilesAcross) {
+			throw new IndexOutOfBoundsException();
+		}
+		int key = (row / tileSize) * tilesAcross + col / tileSize;
+		if (key == lastKey) {
+			hits++;
+			return lastTile;
+		}
+		long[] tile = cache.get(key);
+		if (tile != null) {
+			hits++;
+		} else {
+			misses++;
+			tile = spareTile != null ? spareTile : new long[tileWords(tileSize)];
+			spareTile = null;
+			read(key, tile);
+			cache.put(key, tile);                  //may evict the least recently used tile
+		}
+		lastKey = key;
+		lastTile = tile;
+		return tile;
+	}
+
+	private void read(int key, long[] tile) {
+		try {
+			buffer.clear();
+			long position = HEADER_BYTES + (long)key * buffer.capacity();
+			while (buffer.hasRemaining()) {
+				int read = channel.read(buffer, position);
+				if (read < 0) {
+					throw new IndexOutOfBoundsException();
+				}
+				position += read;
+			}
+			buffer.flip();
+			buffer.asLongBuffer().get(tile);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void writeTo(FileChannel out) throws IOException {
+		PackedMazeStorage.writeWords(this, mazeWidth + 1, mazeHeight + 1, out);
+	}
+
+	/** Close the file.  The storage can not be used afterwards. */
+	@Override
+	public synchronized void close() throws IOException {
+		channel.close();
+		cache.clear();
+	}
+}
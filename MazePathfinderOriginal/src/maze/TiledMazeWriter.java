@@ -0,0 +1,158 @@
+package maze;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * <P>Writes a tiled maze file (see TiledMazeStorage) one band of tiles at
+ * a time.  The walls and weights must be set in order of row: once a
+ * row in a later band is set, the band before it is written out and can
+ * no longer be changed.  Only one band of tiles is ever in memory, so a
+ * maze of any height can be written.</P>
+ */
+class TiledMazeWriter implements MazeSink, Closeable {
+
+	private final FileChannel channel;
+	private final int width, height;           // wall dimensions, not junctures
+	private final int tileSize, tilesAcross;
+	private final long randomSeed;
+	private final int sparcity;
+	private final long[][] band;               // the tiles of the current band, left to right
+	private final ByteBuffer buffer;
+	private int bandRow;                       // first row of the current band
+	private long nextTile;                     // index of the first tile of the current band
+	private int minimumWeight = Integer.MAX_VALUE;
+	private int maximumWeight;
+
+	/**
+	 * @param file file to create or replace
+	 * @param mazeWidth width of the grid of junctures
+	 * @param mazeHeight height of the grid of junctures
+	 * @param tileSize width and height of a tile, a multiple of 64
+	 * @param randomSeed recorded in the header
+	 * @param sparcity recorded in the header
+	 * @throws IOException
+	 */
+	TiledMazeWriter(Path file, int mazeWidth, int mazeHeight, int tileSize, long randomSeed, int sparcity) throws IOException {
+		if (tileSize <= 0 || tileSize % 64 != 0) {
+			throw new IllegalArgumentException();
+		}
+		width = mazeWidth + 1;
+		height = mazeHeight + 1;
+		this.tileSize = tileSize;
+		this.randomSeed = randomSeed;
+		this.sparcity = sparcity;
+		tilesAcross = (width + tileSize - 1) / tileSize;
+		band = new long[tilesAcross][TiledMazeStorage.tileWords(tileSize)];
+		buffer = ByteBuffer.allocateDirect(8 * TiledMazeStorage.tileWords(tileSize)).order(ByteOrder.LITTLE_ENDIAN);
+		channel = FileChannel.open(file, StandardOpenOption.WRITE,
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+	}
+
+	@Override
+	public void setWallToRight(int row, int col, boolean wall) {
+		setBit(TiledMazeStorage.wallToRightOffset(tileSize), row, col, wall);
+	}
+
+	@Override
+	public void setWallDown(int row, int col, boolean wall) {
+		setBit(TiledMazeStorage.wallDownOffset(tileSize), row, col, wall);
+	}
+
+	@Override
+	public void setHorizontalWeight(int row, int col, int weight) {
+		setNibble(TiledMazeStorage.horizontalWeightOffset(tileSize), row, col, weight);
+	}
+
+	@Override
+	public void setVerticalWeight(int row, int col, int weight) {
+		setNibble(TiledMazeStorage.verticalWeightOffset(tileSize), row, col, weight);
+	}
+
+	private void setBit(int offset, int row, int col, boolean wall) {
+		long[] tile = tileFor(row, col);
+		int r = row % tileSize;
+		int c = col % tileSize;
+		int word = offset + r * (tileSize >>> 6) + (c >>> 6);
+		if (wall) {
+			tile[word] |= 1L << c;
+		} else {
+			tile[word] &= ~(1L << c);
+		}
+	}
+
+	private void setNibble(int offset, int row, int col, int weight) {
+		long[] tile = tileFor(row, col);
+		int r = row % tileSize;
+		int c = col % tileSize;
+		int word = offset + r * (tileSize >>> 4) + (c >>> 4);
+		int shift = (c & 15) << 2;
+		tile[word] = (tile[word] & ~(15L << shift)) | ((long)weight << shift);
+		minimumWeight = Math.min(minimumWeight, weight);
+		maximumWeight = Math.max(maximumWeight, weight);
+	}
+
+	private long[] tileFor(int row, int col) {
+		if (row < bandRow) {
+			throw new IllegalStateException("row " + row + " has already been written");
+		}
+		while (row >= bandRow + tileSize) {
+			flushBand();
+		}
+		return band[col / tileSize];
+	}
+
+	private void flushBand() {
+		try {
+			for (long[] tile : band) {
+				buffer.clear();
+				buffer.asLongBuffer().put(tile);
+				long position = TiledMazeStorage.HEADER_BYTES + nextTile * buffer.capacity();
+				while (buffer.hasRemaining()) {
+					position += channel.write(buffer, position);
+				}
+				nextTile++;
+				Arrays.fill(tile, 0L);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		bandRow += tileSize;
+	}
+
+	/** Write the last band and the header, and close the file. */
+	@Override
+	public void close() throws IOException {
+		try {
+			while (bandRow < height) {
+				flushBand();
+			}
+			ByteBuffer header = ByteBuffer.allocate(TiledMazeStorage.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(TiledMazeStorage.FILE_MAGIC);
+			header.putInt(TiledMazeStorage.FILE_VERSION);
+			header.putInt(width - 1);
+			header.putInt(height - 1);
+			header.putLong(randomSeed);
+			header.putInt(sparcity);
+			header.putInt(minimumWeight);
+			header.putInt(maximumWeight);
+			header.putInt(tileSize);
+			header.flip();
+			long position = 0;
+			while (header.hasRemaining()) {
+				position += channel.write(header, position);
+			}
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		} finally {
+			channel.close();
+		}
+	}
+}
@@ -1,14 +1,60 @@
 package tests;
 
 import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
 import org.junit.Test;
 
+import graph.BucketQueue;
+import graph.CompactGraph;
+import graph.CorridorGraph;
+import graph.DistanceField;
+import graph.GraphAlgorithmObserver;
+import graph.Heuristic;
+import graph.ImplicitMazeGraph;
+import graph.IndexedMinHeap;
+import graph.IndexedPriorityQueue;
 import graph.MazeGraph;
+import graph.SearchWorkspace;
+import graph.ShortestPath;
 import graph.WeightedGraph;
+import maze.BitParallelBFS;
+import maze.EllerMazeGenerator;
+import maze.Juncture;
 import maze.Maze;
+import maze.ParallelMazeGenerator;
+import maze.TiledMazeStorage;
 
 public class GeneralTests {
 
+	/** Records what the graph reports so the tests can check it. */
+	private static class RecordingObserver<V> implements GraphAlgorithmObserver<V> {
+		List<V> visited = new ArrayList<>();
+		List<Integer> finishedCosts = new ArrayList<>();
+		List<V> path;
+		int searchesBegun;
+
+		public void notifyDFSHasBegun() { searchesBegun++; }
+		public void notifyBFSHasBegun() { searchesBegun++; }
+		public void notifyVisit(V vertexBeingVisited) { visited.add(vertexBeingVisited); }
+		public void notifySearchIsOver() {}
+		public void notifyDijkstraHasBegun() {}
+		public void notifyDijkstraVertexFinished(V vertex, Integer costOfPath) {
+			visited.add(vertex);
+			finishedCosts.add(costOfPath);
+		}
+		public void notifyDijkstraIsOver(List<V> path) { this.path = path; }
+		public void notifyAStarVertexExpanded(V vertex, Integer costOfPath) { visited.add(vertex); }
+	}
+
 	@Test
 	public void testAddVertexAndContainsVertex() {
 		WeightedGraph<String> graph = new WeightedGraph<String>();
@@ -101,8 +147,52 @@ public class GeneralTests {
 		
 		graph.addEdge("H", "F", 5);
 		
-		
+		RecordingObserver<String> observer = new RecordingObserver<>();
+		graph.addObserver(observer);
 		graph.DoBFS("A", "H");
+		assertEquals(List.of("A", "B", "C", "D", "E", "F", "G", "H"), observer.visited);
+	}
+	
+	@Test
+	public void testBFSVisitOrder() {
+		// the original BFS took successors in the order of each vertex's HashMap, not the order the edges
+		// were added in, and this is the sequence it visited
+		WeightedGraph<String> graph = new WeightedGraph<String>();
+		for(String v : new String[] {"Start", "Zed", "Queen", "Apple", "Yak", "Mole", "Kite", "Bee", "End"}) {
+			graph.addVertex(v);
+		}
+		graph.addEdge("Start", "Zed", 1);
+		graph.addEdge("Start", "Queen", 1);
+		graph.addEdge("Start", "Apple", 1);
+		graph.addEdge("Start", "Yak", 1);
+		graph.addEdge("Zed", "Mole", 1);
+		graph.addEdge("Zed", "Kite", 1);
+		graph.addEdge("Queen", "Kite", 1);
+		graph.addEdge("Queen", "Bee", 1);
+		graph.addEdge("Apple", "Bee", 1);
+		graph.addEdge("Apple", "Start", 1);
+		graph.addEdge("Yak", "End", 1);
+		graph.addEdge("Mole", "End", 1);
+		graph.addEdge("Kite", "Mole", 1);
+		graph.addEdge("Bee", "End", 1);
+		
+		RecordingObserver<String> observer = new RecordingObserver<>();
+		graph.addObserver(observer);
+		graph.DoBFS("Start", "End");
+		assertEquals(List.of("Start", "Apple", "Yak", "Queen", "Zed", "Bee", "End"), observer.visited);
+		assertEquals(1, observer.searchesBegun);
+		
+		try {
+			graph.DoBFS("Start", "Nowhere");
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			graph.DoBFS("Nowhere", "End");
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+		assertEquals(1, observer.searchesBegun);      // neither bad search was begun
 	}
 	
 	
@@ -211,6 +301,124 @@ public class GeneralTests {
 		graph.DoDijsktra("H", "J");
 	}
 	
+	@Test
+	public void testDijsktraPath() {
+		WeightedGraph<String> graph = new WeightedGraph<String>();
+		graph.addVertex("A");
+		graph.addVertex("B");
+		graph.addVertex("C");
+		graph.addVertex("D");
+		graph.addVertex("E");
+		
+		graph.addEdge("A", "B", 4);
+		graph.addEdge("A", "C", 1);
+		graph.addEdge("C", "B", 2);
+		graph.addEdge("B", "D", 5);
+		graph.addEdge("C", "D", 8);
+		
+		RecordingObserver<String> observer = new RecordingObserver<>();
+		graph.addObserver(observer);
+		graph.DoDijsktra("A", "D");
+		
+		assertEquals(List.of("A", "C", "B", "D"), observer.path);
+		assertEquals(List.of("A", "C", "B", "D"), observer.visited);   // E is never reached
+		assertEquals(List.of(0, 1, 3, 8), observer.finishedCosts);
+		
+		graph.DoDijsktra("A", "E");
+		assertTrue(observer.path.isEmpty());
+	}
+	
+	@Test
+	public void testDijsktraTieOrder() {
+		// added backwards, so the index order is the opposite of the HashSet order (A, B, C, D, E)
+		WeightedGraph<String> graph = new WeightedGraph<String>();
+		for(String v : new String[] {"E", "D", "C", "B", "A"}) {
+			graph.addVertex(v);
+		}
+		graph.addEdge("A", "B", 100);      // heavy enough for the heap
+		graph.addEdge("A", "C", 100);
+		graph.addEdge("A", "D", 100);
+		graph.addEdge("B", "E", 100);
+		graph.addEdge("C", "E", 100);
+		
+		RecordingObserver<String> observer = new RecordingObserver<>();
+		graph.addObserver(observer);
+		graph.DoDijsktra("A", "E");
+		assertEquals(List.of("A", "B", "C", "D", "E"), observer.visited);
+		assertEquals(List.of("A", "B", "E"), observer.path);
+	}
+	
+	@Test
+	public void testQueuesBreakTiesAlike() {
+		// the same run of operations, as Dijkstra's algorithm makes them, on both queues
+		Random random = new Random(14);
+		IndexedPriorityQueue[] queues = {new IndexedMinHeap(200), new BucketQueue(200, 3)};
+		List<List<Integer>> extracted = new ArrayList<>();
+		for(IndexedPriorityQueue queue : queues) {
+			random.setSeed(14);
+			List<Integer> order = new ArrayList<>();
+			int[] keys = new int[200];
+			Arrays.fill(keys, Integer.MAX_VALUE);
+			keys[0] = 0;
+			queue.insertOrDecrease(0, 0);
+			while( !queue.isEmpty() ) {
+				int key = queue.peekKey();
+				order.add(queue.extractMin());
+				for(int i = 0; i < 4; i++) {
+					int v = random.nextInt(200);
+					int newKey = key + 1 + random.nextInt(3);
+					if(newKey < keys[v] && !order.contains(v)) {
+						keys[v] = newKey;
+						queue.insertOrDecrease(v, newKey);
+					}
+				}
+			}
+			extracted.add(order);
+		}
+		assertEquals(extracted.get(0), extracted.get(1));
+		
+		// light edges use a BucketQueue, so this is testDijsktraTieOrder on the other queue
+		WeightedGraph<String> graph = new WeightedGraph<String>();
+		for(String v : new String[] {"E", "D", "C", "B", "A"}) {
+			graph.addVertex(v);
+		}
+		graph.addEdge("A", "B", 1);
+		graph.addEdge("A", "C", 1);
+		graph.addEdge("A", "D", 1);
+		graph.addEdge("B", "E", 1);
+		graph.addEdge("C", "E", 1);
+		RecordingObserver<String> observer = new RecordingObserver<>();
+		graph.addObserver(observer);
+		graph.DoDijsktra("A", "E");
+		assertEquals(List.of("A", "B", "C", "D", "E"), observer.visited);
+		assertEquals(List.of("A", "B", "E"), observer.path);
+		SearchWorkspace workspace = new SearchWorkspace();
+		assertEquals(2, graph.DoDijsktra("A", "E", workspace));
+		assertEquals("B", graph.getPathVertex(workspace, 1));
+	}
+	
+	@Test
+	public void testDijsktraHeavyWeights() {
+		WeightedGraph<String> graph = new WeightedGraph<String>();
+		graph.addVertex("A");
+		graph.addVertex("B");
+		graph.addVertex("C");
+		graph.addVertex("D");
+		
+		graph.addEdge("A", "B", 400);           // too heavy for the bucket queue
+		graph.addEdge("A", "C", 100);
+		graph.addEdge("C", "B", 200);
+		graph.addEdge("B", "D", 500);
+		graph.addEdge("C", "D", 800);
+		
+		RecordingObserver<String> observer = new RecordingObserver<>();
+		graph.addObserver(observer);
+		graph.DoDijsktra("A", "D");
+		
+		assertEquals(List.of("A", "C", "B", "D"), observer.path);
+		assertEquals(List.of(0, 100, 300, 800), observer.finishedCosts);
+	}
+	
 	@Test
 	public void testMazeGraph() {
 		Maze maze = new Maze(5, 4, 1, 6);
@@ -219,6 +427,853 @@ public class GeneralTests {
 	
 	}
 	
+	@Test
+	public void testMazeGeneration() {
+		Maze maze = new Maze(150, 200, 0, 3);
+		Maze sameSeed = new Maze(150, 200, 0, 3);
+		int openPassages = 0;
+		for(int y = 0; y < 150; y++) {
+			for(int x = 0; x < 200; x++) {
+				assertEquals(maze.isWallToRight(x, y), sameSeed.isWallToRight(x, y));
+				assertEquals(maze.isWallBelow(x, y), sameSeed.isWallBelow(x, y));
+				openPassages += (maze.isWallToRight(x, y) ? 0 : 1) + (maze.isWallBelow(x, y) ? 0 : 1);
+			}
+		}
+		// with a sparcity of 0 the passages form a tree: connected, and one fewer than the junctures
+		assertEquals(150 * 200 - 1, openPassages);
+		DistanceField<Juncture> field = new ImplicitMazeGraph(maze).DoDijkstraDistances(new Juncture(0, 0));
+		for(int y = 0; y < 150; y++) {
+			for(int x = 0; x < 200; x++) {
+				assertTrue(field.isReachable(new Juncture(x, y)));
+			}
+		}
+	}
+	
+	@Test
+	public void testLargeSparseMaze() {
+		// (width + 1) * (height + 1) * sparcity is past Integer.MAX_VALUE here
+		Maze maze = new Maze(4700, 4700, 100, 3);
+		long openPassages = 0;
+		for(int y = 0; y < 4700; y++) {
+			for(int x = 0; x < 4700; x++) {
+				openPassages += (maze.isWallToRight(x, y) ? 0 : 1) + (maze.isWallBelow(x, y) ? 0 : 1);
+			}
+		}
+		assertTrue(openPassages > 4700L * 4700 - 1 + 4700L * 4700 / 2);   // many walls removed, not a bare tree
+	}
+	
+	@Test
+	public void testMazeSaveAndLoad() throws IOException {
+		Maze maze = new Maze(70, 130, 25);
+		Path file = Files.createTempFile("maze", ".bin");
+		try {
+			maze.save(file);
+			Maze loaded = Maze.load(file);
+			assertEquals(130, loaded.getMazeWidth());
+			assertEquals(70, loaded.getMazeHeight());
+			assertEquals(maze.getRandomSeed(), loaded.getRandomSeed());
+			assertEquals(25, loaded.getSparcity());
+			assertEquals(maze.getMinimumWeight(), loaded.getMinimumWeight());
+			assertEquals(maze.getMaximumWeight(), loaded.getMaximumWeight());
+			Maze regenerated = new Maze(70, 130, 25, loaded.getRandomSeed());
+			for(int y = 0; y < 70; y++) {
+				for(int x = 0; x < 130; x++) {
+					assertEquals(maze.isWallToRight(x, y), loaded.isWallToRight(x, y));
+					assertEquals(maze.isWallBelow(x, y), loaded.isWallBelow(x, y));
+					assertEquals(maze.isWallBelow(x, y), regenerated.isWallBelow(x, y));
+					if(x < 129) {
+						assertEquals(maze.getWeightToRight(x, y), loaded.getWeightToRight(x, y));
+					}
+					if(y < 69) {
+						assertEquals(maze.getWeightBelow(x, y), loaded.getWeightBelow(x, y));
+					}
+				}
+			}
+			
+			Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+			boolean caught = false;
+			try {
+				Maze.load(file);
+			} catch (IOException e) {
+				caught = true;
+			}
+			assertTrue(caught);
+		} finally {
+			Files.delete(file);
+		}
+	}
+	
+	@Test
+	public void testTiledMazeStorage() throws IOException {
+		Maze maze = new Maze(100, 150, 25);
+		Path file = Files.createTempFile("maze", ".tiles");
+		Path saved = Files.createTempFile("maze", ".bin");
+		try {
+			TiledMazeStorage.write(maze, file, 64);
+			try (TiledMazeStorage tiles = new TiledMazeStorage(file, 3)) {
+				Maze tiled = new Maze(tiles);
+				assertEquals(150, tiled.getMazeWidth());
+				assertEquals(100, tiled.getMazeHeight());
+				for(int y = 0; y < 100; y++) {
+					for(int x = 0; x < 150; x++) {
+						assertEquals(maze.isWallToRight(x, y), tiled.isWallToRight(x, y));
+						assertEquals(maze.isWallBelow(x, y), tiled.isWallBelow(x, y));
+						if(x < 149) {
+							assertEquals(maze.getWeightToRight(x, y), tiled.getWeightToRight(x, y));
+						}
+						if(y < 99) {
+							assertEquals(maze.getWeightBelow(x, y), tiled.getWeightBelow(x, y));
+						}
+					}
+				}
+				// 2 x 3 tiles, only 3 of which fit in the cache
+				assertTrue(tiles.getMisses() >= 6);
+				assertTrue(tiles.getEvictions() >= 3);
+				assertTrue(tiles.getHits() > tiles.getMisses());
+				
+				Juncture start = new Juncture(0, 0);
+				Juncture end = new Juncture(149, 99);
+				SearchWorkspace workspace = new SearchWorkspace();
+				assertEquals(new ImplicitMazeGraph(maze).DoDijsktra(start, end, workspace),
+						new ImplicitMazeGraph(tiled).DoDijsktra(start, end, workspace));
+				
+				tiled.save(saved);
+				Maze loaded = Maze.load(saved);
+				for(int y = 0; y < 100; y++) {
+					for(int x = 0; x < 150; x++) {
+						assertEquals(maze.isWallBelow(x, y), loaded.isWallBelow(x, y));
+					}
+				}
+			}
+			
+			// a tile size that is not a positive multiple of 64 is a corrupt header
+			byte[] bytes = Files.readAllBytes(file);
+			for(int tileSize : new int[] {0, 100}) {
+				bytes[36] = (byte)tileSize;
+				bytes[37] = 0;
+				Files.write(file, bytes);
+				try {
+					new TiledMazeStorage(file, 3).close();
+					fail();
+				} catch(IOException e) {
+				}
+			}
+		} finally {
+			Files.delete(file);
+			Files.delete(saved);
+		}
+	}
+	
+	@Test
+	public void testEllerMazeGenerator() throws IOException {
+		EllerMazeGenerator generator = new EllerMazeGenerator(90, 140, 0, 11);
+		Maze maze = generator.generate();
+		int openPassages = 0;
+		for(int y = 0; y < 90; y++) {
+			for(int x = 0; x < 140; x++) {
+				openPassages += (maze.isWallToRight(x, y) ? 0 : 1) + (maze.isWallBelow(x, y) ? 0 : 1);
+			}
+		}
+		assertEquals(90 * 140 - 1, openPassages);   // a perfect maze, so the passages form a tree
+		DistanceField<Juncture> field = new ImplicitMazeGraph(maze).DoDijkstraDistances(new Juncture(0, 0));
+		for(int y = 0; y < 90; y++) {
+			for(int x = 0; x < 140; x++) {
+				assertTrue(field.isReachable(new Juncture(x, y)));
+			}
+		}
+		
+		Path file = Files.createTempFile("maze", ".bin");
+		Path tiledFile = Files.createTempFile("maze", ".tiles");
+		try {
+			generator = new EllerMazeGenerator(90, 140, 30, 11);
+			maze = generator.generate();
+			generator.write(file);
+			generator.writeTiled(tiledFile, 64);
+			Maze loaded = Maze.load(file);
+			assertEquals(maze.getMinimumWeight(), loaded.getMinimumWeight());
+			assertEquals(maze.getMaximumWeight(), loaded.getMaximumWeight());
+			try (TiledMazeStorage tiles = new TiledMazeStorage(tiledFile, 4)) {
+				Maze tiled = new Maze(tiles);
+				for(int y = 0; y < 90; y++) {
+					for(int x = 0; x < 140; x++) {
+						for(Maze other : new Maze[] {loaded, tiled}) {
+							assertEquals(maze.isWallAbove(x, y), other.isWallAbove(x, y));
+							assertEquals(maze.isWallBelow(x, y), other.isWallBelow(x, y));
+							assertEquals(maze.isWallToLeft(x, y), other.isWallToLeft(x, y));
+							assertEquals(maze.isWallToRight(x, y), other.isWallToRight(x, y));
+							if(x < 139) {
+								assertEquals(maze.getWeightToRight(x, y), other.getWeightToRight(x, y));
+							}
+							if(y < 89) {
+								assertEquals(maze.getWeightBelow(x, y), other.getWeightBelow(x, y));
+							}
+						}
+					}
+				}
+			}
+		} finally {
+			Files.delete(file);
+			Files.delete(tiledFile);
+		}
+	}
+	
+	@Test
+	public void testParallelMazeGenerator() {
+		Maze maze = new ParallelMazeGenerator(150, 200, 0, 5, 64).generate(4);
+		Maze again = new ParallelMazeGenerator(150, 200, 0, 5, 64).generate(1);
+		Maze onCommonPool = new ParallelMazeGenerator(150, 200, 0, 5, 64).generate();
+		int openPassages = 0;
+		for(int y = 0; y < 150; y++) {
+			for(int x = 0; x < 200; x++) {
+				assertEquals(maze.isWallToRight(x, y), again.isWallToRight(x, y));
+				assertEquals(maze.isWallBelow(x, y), again.isWallBelow(x, y));
+				assertEquals(maze.isWallToRight(x, y), onCommonPool.isWallToRight(x, y));
+				assertEquals(maze.isWallBelow(x, y), onCommonPool.isWallBelow(x, y));
+				if(x < 199) {
+					assertEquals(maze.getWeightToRight(x, y), again.getWeightToRight(x, y));
+				}
+				openPassages += (maze.isWallToRight(x, y) ? 0 : 1) + (maze.isWallBelow(x, y) ? 0 : 1);
+			}
+		}
+		assertEquals(150 * 200 - 1, openPassages);   // the tiles and their borders form one tree
+		DistanceField<Juncture> field = new ImplicitMazeGraph(maze).DoDijkstraDistances(new Juncture(0, 0));
+		for(int y = 0; y < 150; y++) {
+			for(int x = 0; x < 200; x++) {
+				assertTrue(field.isReachable(new Juncture(x, y)));
+			}
+		}
+	}
+	
+	@Test
+	public void testGenerateAllMatchesSequential() throws InterruptedException {
+		long[] seeds = {1, 2, 3, 4, 5, 6, 7, 8};
+		List<Maze> mazes = Maze.generateAll(40, 60, 20, seeds, 3);
+		assertEquals(seeds.length, mazes.size());
+		for(int i = 0; i < seeds.length; i++) {
+			Maze expected = new Maze(40, 60, 20, seeds[i]);
+			Maze maze = mazes.get(i);
+			assertEquals(seeds[i], maze.getRandomSeed());
+			for(int y = 0; y < 40; y++) {
+				for(int x = 0; x < 60; x++) {
+					assertEquals(expected.isWallToRight(x, y), maze.isWallToRight(x, y));
+					assertEquals(expected.isWallBelow(x, y), maze.isWallBelow(x, y));
+					if(y < 39) {
+						assertEquals(expected.getWeightBelow(x, y), maze.getWeightBelow(x, y));
+					}
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void testPackedJunctureIds() {
+		long id = Juncture.pack(123456, 7);
+		assertEquals(123456, Juncture.unpackX(id));
+		assertEquals(7, Juncture.unpackY(id));
+		assertEquals(new Juncture(123456, 7), Juncture.unpack(id));
+		assertEquals(id, new Juncture(123456, 7).pack());
+		assertTrue(new Juncture(10000, 0).hashCode() != new Juncture(0, 1).hashCode());
+		
+		Maze maze = new Maze(12, 15, 40, 8);
+		MazeGraph graph = new MazeGraph(maze);
+		for(int y = 0; y < 12; y++) {
+			for(int x = 0; x < 15; x++) {
+				long cell = Juncture.pack(x, y);
+				assertEquals(maze.isWallAbove(x, y), maze.isWallAbove(cell));
+				assertEquals(maze.isWallToLeft(x, y), maze.isWallToLeft(cell));
+				assertEquals(new Juncture(x, y), graph.getJuncture(cell));
+				if(x < 14) {
+					assertEquals(graph.getWeight(new Juncture(x, y), new Juncture(x + 1, y)),
+							graph.getWeight(cell, Juncture.pack(x + 1, y)));
+				}
+			}
+		}
+		assertSame(graph.getJuncture(Juncture.pack(3, 4)), graph.getJuncture(Juncture.pack(3, 4)));
+	}
+	
+	@Test
+	public void testFreeze() {
+		WeightedGraph<String> graph = new WeightedGraph<String>();
+		graph.addVertex("A");
+		graph.addVertex("B");
+		graph.addVertex("C");
+		graph.addVertex("D");
+		graph.addEdge("A", "B", 7);
+		graph.addEdge("A", "C", 2);
+		graph.addEdge("C", "B", 3);
+		graph.addEdge("B", "D", 1);
+		graph.addEdge("D", "A", 9);
+		CompactGraph<String> frozen = graph.freeze();
+		
+		assertTrue(frozen.containsVertex("C"));
+		assertEquals(Integer.valueOf(3), frozen.getWeight("C", "B"));
+		assertNull(frozen.getWeight("B", "C"));
+		assertEquals(6, frozen.DoDijkstraToTarget("A", "D").getCost());
+		assertEquals(graph.DoDijkstraToTarget("A", "D").getPath(), frozen.DoDijkstraToTarget("A", "D").getPath());
+		assertEquals(graph.DoBidirectionalDijkstra("A", "D").getCost(), frozen.DoBidirectionalDijkstra("A", "D").getCost());
+		assertEquals(graph.DoBidirectionalBFS("C", "A"), frozen.DoBidirectionalBFS("C", "A"));
+		try {
+			frozen.addEdge("A", "D", 1);
+			fail();
+		} catch (UnsupportedOperationException e) {
+		}
+		
+		Maze maze = new Maze(30, 40, 30, 21);
+		MazeGraph mazeGraph = new MazeGraph(maze);
+		CompactGraph<Juncture> frozenMaze = mazeGraph.freeze();
+		Juncture start = new Juncture(0, 0);
+		Juncture end = new Juncture(39, 29);
+		assertEquals(mazeGraph.DoDijkstraToTarget(start, end).getPath(), frozenMaze.DoDijkstraToTarget(start, end).getPath());
+		assertEquals(mazeGraph.DoAStar(start, end, mazeGraph.manhattanHeuristic()).getCost(),
+				frozenMaze.DoAStar(start, end, mazeGraph.manhattanHeuristic()).getCost());
+	}
+	
+	@Test
+	public void testCorridorGraph() {
+		for(int sparcity : new int[] {0, 30}) {
+			Maze maze = new Maze(25, 35, sparcity, 17);
+			MazeGraph graph = new MazeGraph(maze);
+			CorridorGraph<Juncture> corridors = new CorridorGraph<Juncture>(graph);
+			assertTrue(corridors.getVertexCount() < 25 * 35);
+			Random random = new Random(4);
+			for(int i = 0; i < 200; i++) {
+				Juncture start = new Juncture(random.nextInt(35), random.nextInt(25));
+				Juncture end = new Juncture(random.nextInt(35), random.nextInt(25));
+				ShortestPath<Juncture> expected = graph.DoDijkstraToTarget(start, end);
+				ShortestPath<Juncture> path = corridors.DoDijkstraToTarget(start, end);
+				assertEquals(expected.getCost(), path.getCost());
+				assertEquals(start, path.getPath().get(0));
+				assertEquals(end, path.getPath().get(path.getPath().size() - 1));
+				int cost = 0;
+				for(int j = 1; j < path.getPath().size(); j++) {
+					cost += graph.getWeight(path.getPath().get(j - 1), path.getPath().get(j));
+				}
+				assertEquals(expected.getCost(), cost);
+			}
+		}
+	}
+	
+	@Test
+	public void testCorridorGraphLoops() {
+		// a ring has no junction at all, so one of its vertices is kept and the whole ring is a loop corridor
+		WeightedGraph<Integer> ring = new WeightedGraph<Integer>();
+		for(int i = 0; i < 8; i++) {
+			ring.addVertex(i);
+		}
+		for(int i = 0; i < 8; i++) {
+			ring.addEdge(i, (i + 1) % 8, i + 1);
+			ring.addEdge((i + 1) % 8, i, i + 1);
+		}
+		CorridorGraph<Integer> contracted = new CorridorGraph<Integer>(ring);
+		assertEquals(1, contracted.getVertexCount());
+		for(int start = 0; start < 8; start++) {
+			for(int end = 0; end < 8; end++) {
+				assertEquals(ring.DoDijkstraToTarget(start, end).getCost(), contracted.DoDijkstraToTarget(start, end).getCost());
+			}
+		}
+		
+		// small sparse mazes are full of corridors that loop back to the junction they leave
+		Random random = new Random(20);
+		for(int m = 0; m < 200; m++) {
+			int height = 2 + random.nextInt(4), width = 2 + random.nextInt(4);
+			MazeGraph graph = new MazeGraph(new Maze(height, width, 20 + random.nextInt(40), m));
+			CorridorGraph<Juncture> corridors = new CorridorGraph<Juncture>(graph);
+			for(int q = 0; q < 10; q++) {
+				Juncture start = new Juncture(random.nextInt(width), random.nextInt(height));
+				Juncture end = new Juncture(random.nextInt(width), random.nextInt(height));
+				List<Juncture> path = corridors.DoDijkstraToTarget(start, end).getPath();
+				int cost = 0;
+				for(int j = 1; j < path.size(); j++) {
+					cost += graph.getWeight(path.get(j - 1), path.get(j));
+				}
+				assertEquals(graph.DoDijkstraToTarget(start, end).getCost(), cost);
+			}
+		}
+		MazeGraph graph = new MazeGraph(new Maze(3, 2, 26, 6));
+		assertEquals(graph.DoDijkstraToTarget(new Juncture(0, 1), new Juncture(1, 2)).getCost(),
+				new CorridorGraph<Juncture>(graph).DoDijkstraToTarget(new Juncture(0, 1), new Juncture(1, 2)).getCost());
+	}
+	
+	@Test
+	public void testMazeGraphIsUndirected() {
+		Maze maze = new Maze(10, 12, 0, 6);
+		MazeGraph graph = new MazeGraph(maze);
+		for(int y = 0; y < 10; y++) {
+			for(int x = 0; x < 11; x++) {
+				Juncture a = new Juncture(x, y);
+				Juncture b = new Juncture(x + 1, y);
+				assertEquals(graph.getWeight(a, b), graph.getWeight(b, a));
+				assertEquals(maze.isWallToRight(x, y) ? null : Integer.valueOf(maze.getWeightToRight(x, y)), graph.getWeight(b, a));
+			}
+		}
+		assertNull(graph.getWeight(new Juncture(0, 0), new Juncture(2, 0)));
+		
+		Juncture a = new Juncture(3, 4);
+		Juncture b = new Juncture(3, 5);
+		graph.addEdge(b, a, 7);
+		assertEquals(Integer.valueOf(7), graph.getWeight(a, b));
+		assertEquals(Integer.valueOf(7), graph.getWeight(b, a));
+		try {
+			graph.addEdge(a, new Juncture(4, 5), 1);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			graph.addVertex(new Juncture(20, 20));
+			fail();
+		} catch (UnsupportedOperationException e) {
+		}
+	}
+	
+	@Test
+	public void testMazeGraphTieOrder() {
+		// the old MazeGraph was a HashMap of Junctures hashing to x + 10000 * y, which an Integer of that value copies
+		Maze maze = new Maze(40, 60, 100, 9);
+		MazeGraph graph = new MazeGraph(maze);
+		WeightedGraph<Integer> hashed = new WeightedGraph<Integer>();
+		int width = maze.getMazeWidth();
+		int height = maze.getMazeHeight();
+		for(int y = 0; y < height; y++) {
+			for(int x = 0; x < width; x++) {
+				hashed.addVertex(x + 10000 * y);
+			}
+		}
+		for(int y = 0; y < height; y++) {
+			for(int x = 0; x < width; x++) {
+				if(x + 1 < width && !maze.isWallToRight(x, y)) {
+					hashed.addEdge(x + 10000 * y, x + 1 + 10000 * y, maze.getWeightToRight(x, y));
+					hashed.addEdge(x + 1 + 10000 * y, x + 10000 * y, maze.getWeightToRight(x, y));
+				}
+				if(y + 1 < height && !maze.isWallBelow(x, y)) {
+					hashed.addEdge(x + 10000 * y, x + 10000 * (y + 1), maze.getWeightBelow(x, y));
+					hashed.addEdge(x + 10000 * (y + 1), x + 10000 * y, maze.getWeightBelow(x, y));
+				}
+			}
+		}
+		
+		RecordingObserver<Juncture> observer = new RecordingObserver<>();
+		graph.addObserver(observer);
+		graph.DoDijsktra(new Juncture(0, 0), new Juncture(width - 1, height - 1));
+		RecordingObserver<Integer> expected = new RecordingObserver<>();
+		hashed.addObserver(expected);
+		hashed.DoDijsktra(0, width - 1 + 10000 * (height - 1));
+		
+		List<Integer> visited = new ArrayList<>();
+		for(Juncture j : observer.visited) {
+			visited.add(j.getX() + 10000 * j.getY());
+		}
+		List<Integer> path = new ArrayList<>();
+		for(Juncture j : observer.path) {
+			path.add(j.getX() + 10000 * j.getY());
+		}
+		assertEquals(expected.visited, visited);
+		assertEquals(expected.finishedCosts, observer.finishedCosts);
+		assertEquals(expected.path, path);
+	}
+	
+	@Test
+	public void testParallelMazeGraph() {
+		Maze maze = new Maze(400, 300, 20, 12);
+		MazeGraph sequential = new MazeGraph(maze);
+		MazeGraph parallel = new MazeGraph(maze, 4);
+		assertArrayEquals(edgeWeights(sequential, 300, 400), edgeWeights(parallel, 300, 400));
+		assertArrayEquals(edgeWeights(sequential, 300, 400), edgeWeights(new MazeGraph(maze, ForkJoinPool.commonPool()), 300, 400));
+		Juncture start = new Juncture(0, 0);
+		Juncture end = new Juncture(299, 399);
+		assertEquals(sequential.DoDijkstraToTarget(start, end).getPath(), parallel.DoDijkstraToTarget(start, end).getPath());
+	}
+	
+	@Test
+	public void testParallelBFS() {
+		Maze maze = new Maze(150, 160, 30, 9);
+		MazeGraph graph = new MazeGraph(maze);
+		
+		// hop counts by a plain BFS over the walls
+		int[] expected = new int[150 * 160];
+		Arrays.fill(expected, -1);
+		int[] queue = new int[150 * 160];
+		int head = 0, tail = 0;
+		queue[tail++] = 0;
+		expected[0] = 0;
+		while(head < tail) {
+			int v = queue[head++];
+			int x = v % 160, y = v / 160;
+			int[] neighbours = {
+				maze.isWallAbove(x, y) ? -1 : v - 160, maze.isWallBelow(x, y) ? -1 : v + 160,
+				maze.isWallToLeft(x, y) ? -1 : v - 1, maze.isWallToRight(x, y) ? -1 : v + 1};
+			for(int w : neighbours) {
+				if(w != -1 && expected[w] == -1) {
+					expected[w] = expected[v] + 1;
+					queue[tail++] = w;
+				}
+			}
+		}
+		
+		List<DistanceField<Juncture>> fields = List.of(graph.DoParallelBFS(new Juncture(0, 0), 1),
+				graph.DoParallelBFS(new Juncture(0, 0), 4), graph.DoParallelBFS(new Juncture(0, 0), ForkJoinPool.commonPool()));
+		for(DistanceField<Juncture> hops : fields) {
+			for(int y = 0; y < 150; y++) {
+				for(int x = 0; x < 160; x++) {
+					Juncture juncture = new Juncture(x, y);
+					assertEquals(expected[y * 160 + x], hops.getDistance(juncture).intValue());
+					assertEquals(expected[y * 160 + x] + 1, hops.getPathTo(juncture).size());
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void testBitParallelBFS() throws IOException {
+		// widths on, just under and just over a word, and one with a partly used last word
+		for(int width : new int[] {63, 64, 65, 128, 150}) {
+			Maze maze = new Maze(70, width, 30, width);
+			DistanceField<Juncture> expected = new MazeGraph(maze).DoParallelBFS(new Juncture(width - 1, 35), 1);
+			BitParallelBFS bfs = new BitParallelBFS(maze);
+			int[] hops = new int[70 * width];
+			assertEquals(70 * width, bfs.hopDistances(width - 1, 35, hops));
+			int depth = 0;
+			for(int y = 0; y < 70; y++) {
+				for(int x = 0; x < width; x++) {
+					assertEquals(expected.getDistance(new Juncture(x, y)).intValue(), hops[y * width + x]);
+					assertTrue(bfs.isReached(x, y));
+					depth = Math.max(depth, hops[y * width + x]);
+				}
+			}
+			assertEquals(depth, bfs.getDepth());
+			assertTrue(bfs.isConnected());
+		}
+
+		// the same answers from a maze kept in a file, and from one in tiles
+		Maze maze = new Maze(100, 150, 0, 12);
+		int[] expected = new int[100 * 150];
+		new BitParallelBFS(maze).hopDistances(7, 80, expected);
+		Path file = Files.createTempFile("maze", ".bin");
+		Path tiledFile = Files.createTempFile("maze", ".tiles");
+		try {
+			maze.save(file);
+			TiledMazeStorage.write(maze, tiledFile, 64);
+			try (TiledMazeStorage tiles = new TiledMazeStorage(tiledFile, 2)) {
+				for(Maze other : new Maze[] {Maze.load(file), new Maze(tiles)}) {
+					int[] hops = new int[100 * 150];
+					new BitParallelBFS(other).hopDistances(7, 80, hops);
+					assertArrayEquals(expected, hops);
+				}
+			}
+		} finally {
+			Files.delete(file);
+			Files.delete(tiledFile);
+		}
+
+		// a perfect maze has exactly one path to each juncture, so hops are one less than its length
+		Maze perfect = new ParallelMazeGenerator(130, 200, 0, 13, 64).generate();
+		BitParallelBFS bfs = new BitParallelBFS(perfect);
+		assertTrue(bfs.isConnected());
+		assertEquals(130 * 200, bfs.floodFill(199, 129));
+		ShortestPath<Juncture> path = new MazeGraph(perfect).DoDijkstraToTarget(new Juncture(199, 129), new Juncture(0, 0));
+		int[] hops = new int[130 * 200];
+		bfs.hopDistances(199, 129, hops);
+		assertEquals(path.getPath().size() - 1, hops[0]);
+
+		try {
+			bfs.floodFill(200, 0);
+			fail();
+		} catch(IllegalArgumentException e) {
+		}
+	}
+
+	@Test
+	public void testDeltaSteppingMatchesDijkstra() {
+		Maze maze = new Maze(120, 130, 25, 10);
+		MazeGraph graph = new MazeGraph(maze);
+		Juncture start = new Juncture(60, 60);
+		DistanceField<Juncture> expected = graph.DoDijkstraDistances(start);
+		List<DistanceField<Juncture>> fields = new ArrayList<>();
+		fields.add(graph.DoDeltaStepping(start, 4));
+		fields.add(graph.DoDeltaStepping(start, 1, 2));      // every edge but weight 1 is heavy
+		fields.add(graph.DoDeltaStepping(start, 5, 3));
+		fields.add(graph.DoDeltaStepping(start, ForkJoinPool.commonPool()));
+		for(DistanceField<Juncture> field : fields) {
+			for(int y = 0; y < 120; y++) {
+				for(int x = 0; x < 130; x++) {
+					Juncture juncture = new Juncture(x, y);
+					assertEquals(expected.getDistance(juncture), field.getDistance(juncture));
+				}
+			}
+			Juncture corner = new Juncture(129, 119);
+			assertEquals(field.getDistance(corner).intValue(), pathCost(graph, field.getPathTo(corner)));
+		}
+		
+		WeightedGraph<String> directed = new WeightedGraph<String>();
+		directed.addVertex("A");
+		directed.addVertex("B");
+		directed.addVertex("C");
+		directed.addVertex("D");
+		directed.addEdge("A", "B", 20);
+		directed.addEdge("A", "C", 3);
+		directed.addEdge("C", "B", 4);
+		directed.addEdge("D", "A", 1);
+		DistanceField<String> field = directed.DoDeltaStepping("A", 2, 2);
+		assertEquals(Integer.valueOf(7), field.getDistance("B"));
+		assertNull(field.getDistance("D"));
+		assertEquals(Arrays.asList("A", "C", "B"), field.getPathTo("B"));
+	}
+	
+	@Test
+	public void testAStarMatchesDijkstra() {
+		Maze maze = new Maze(30, 40, 20, 17);
+		MazeGraph mazeGraph = new MazeGraph(maze);
+		Juncture start = new Juncture(0, 0);
+		Juncture end = new Juncture(39, 29);
+		RecordingObserver<Juncture> observer = new RecordingObserver<>();
+		mazeGraph.addObserver(observer);
+		
+		mazeGraph.DoDijsktra(start, end);
+		int dijkstraCost = pathCost(mazeGraph, observer.path);
+		
+		observer.visited.clear();
+		mazeGraph.DoAStar(start, end, mazeGraph.manhattanHeuristic());
+		assertEquals(start, observer.path.get(0));
+		assertEquals(end, observer.path.get(observer.path.size() - 1));
+		assertEquals(dijkstraCost, pathCost(mazeGraph, observer.path));
+		assertTrue(observer.visited.size() <= 30 * 40);      // the heuristic is consistent, so no juncture is expanded twice
+	}
+	
+	@Test
+	public void testObserverWrittenBeforeAStar() {
+		// only the methods the interface had before A*, so notifyAStarVertexExpanded is the default
+		final List<List<String>> paths = new ArrayList<>();
+		GraphAlgorithmObserver<String> observer = new GraphAlgorithmObserver<String>() {
+			public void notifyDFSHasBegun() {}
+			public void notifyBFSHasBegun() {}
+			public void notifyVisit(String vertexBeingVisited) {}
+			public void notifySearchIsOver() {}
+			public void notifyDijkstraHasBegun() {}
+			public void notifyDijkstraVertexFinished(String vertex, Integer costOfPath) {}
+			public void notifyDijkstraIsOver(List<String> path) { paths.add(path); }
+		};
+		WeightedGraph<String> graph = new WeightedGraph<String>();
+		graph.addVertex("A");
+		graph.addVertex("B");
+		graph.addEdge("A", "B", 3);
+		graph.addObserver(observer);
+		graph.DoAStar("A", "B", new Heuristic<String>() {
+			public int estimate(String from, String to) { return 0; }
+		});
+		assertEquals(List.of(List.of("A", "B")), paths);
+	}
+	
+	@Test
+	public void testBidirectionalSearches() {
+		Maze maze = new Maze(30, 40, 20, 17);
+		MazeGraph mazeGraph = new MazeGraph(maze);
+		Juncture start = new Juncture(3, 2);
+		Juncture end = new Juncture(35, 27);
+		RecordingObserver<Juncture> observer = new RecordingObserver<>();
+		mazeGraph.addObserver(observer);
+		
+		mazeGraph.DoDijsktra(start, end);
+		List<Juncture> path = mazeGraph.DoBidirectionalDijkstra(start, end).getPath();
+		assertEquals(path, observer.path);
+		assertEquals(start, path.get(0));
+		assertEquals(end, path.get(path.size() - 1));
+		assertEquals(pathCost(mazeGraph, observer.path), pathCost(mazeGraph, path));
+		
+		List<Juncture> hops = mazeGraph.DoBidirectionalBFS(start, end);
+		assertEquals(start, hops.get(0));
+		assertEquals(end, hops.get(hops.size() - 1));
+		assertTrue(hops.size() <= path.size());
+		pathCost(mazeGraph, hops);              // throws if two neighbours are not connected
+	}
+	
+	@Test
+	public void testDijkstraToTargetAndDistances() {
+		Maze maze = new Maze(30, 40, 20, 17);
+		MazeGraph mazeGraph = new MazeGraph(maze);
+		Juncture start = new Juncture(3, 2);
+		Juncture end = new Juncture(35, 27);
+		RecordingObserver<Juncture> observer = new RecordingObserver<>();
+		mazeGraph.addObserver(observer);
+		
+		mazeGraph.DoDijsktra(start, end);
+		List<Juncture> fullPath = new ArrayList<>(observer.path);
+		int finishedByFullSearch = observer.finishedCosts.size();
+		
+		observer.finishedCosts.clear();
+		ShortestPath<Juncture> toTarget = mazeGraph.DoDijkstraToTarget(start, end);
+		assertEquals(fullPath, toTarget.getPath());
+		assertEquals(pathCost(mazeGraph, fullPath), toTarget.getCost());
+		assertTrue(observer.finishedCosts.size() <= finishedByFullSearch);
+		
+		DistanceField<Juncture> field = mazeGraph.DoDijkstraDistances(start);
+		assertEquals(start, field.getSource());
+		assertEquals(Integer.valueOf(0), field.getDistance(start));
+		assertEquals(Integer.valueOf(toTarget.getCost()), field.getDistance(end));
+		assertEquals(toTarget.getCost(), pathCost(mazeGraph, field.getPathTo(end)));
+	}
+	
+	@Test
+	public void testSearchWorkspace() {
+		Maze maze = new Maze(30, 40, 20, 17);
+		MazeGraph mazeGraph = new MazeGraph(maze);
+		ImplicitMazeGraph implicitGraph = new ImplicitMazeGraph(maze);
+		SearchWorkspace workspace = new SearchWorkspace();
+		RecordingObserver<Juncture> observer = new RecordingObserver<>();
+		mazeGraph.addObserver(observer);
+		
+		for(int query = 0; query < 5; query++) {       // the same workspace is reused for every query
+			Juncture start = new Juncture(query, 2 * query);
+			Juncture end = new Juncture(39 - query, 29 - 3 * query);
+			int cost = mazeGraph.DoDijkstraToTarget(start, end).getCost();
+			
+			assertEquals(cost, mazeGraph.DoDijsktra(start, end, workspace));
+			List<Juncture> path = new ArrayList<>();
+			for(int i = 0; i < workspace.getPathLength(); i++) {
+				path.add(mazeGraph.getPathVertex(workspace, i));
+			}
+			assertEquals(cost, pathCost(mazeGraph, path));
+			assertEquals(cost, implicitGraph.DoDijsktra(start, end, workspace));
+			assertEquals(end.getY() * 40 + end.getX(), workspace.getPathIndex(workspace.getPathLength() - 1));
+			
+			assertTrue(mazeGraph.DoBFS(start, end, workspace));
+			assertEquals(start, mazeGraph.getPathVertex(workspace, 0));
+			assertEquals(end, mazeGraph.getPathVertex(workspace, workspace.getPathLength() - 1));
+			
+			observer.visited.clear();
+			mazeGraph.DoDFS(start, end);
+			assertTrue(mazeGraph.DoDFS(start, end, workspace));
+			path.clear();
+			for(int i = 0; i < workspace.getPathLength(); i++) {
+				path.add(mazeGraph.getPathVertex(workspace, i));
+			}
+			pathCost(mazeGraph, path);              // throws if two neighbours are not connected
+			assertTrue(observer.visited.containsAll(path));
+		}
+	}
+	
+	@Test
+	public void testImplicitMazeGraph() {
+		Maze maze = new Maze(25, 35, 30, 8);
+		MazeGraph mazeGraph = new MazeGraph(maze);
+		ImplicitMazeGraph implicitGraph = new ImplicitMazeGraph(maze);
+		for(int x = 0; x < 35; x++) {
+			for(int y = 0; y < 25; y++) {
+				Juncture j = new Juncture(x, y);
+				assertTrue(implicitGraph.containsVertex(j));
+				if(x + 1 < 35) {
+					Juncture right = new Juncture(x + 1, y);
+					assertEquals(mazeGraph.getWeight(j, right), implicitGraph.getWeight(j, right));
+					assertEquals(mazeGraph.getWeight(right, j), implicitGraph.getWeight(right, j));
+				}
+				if(y + 1 < 25) {
+					Juncture below = new Juncture(x, y + 1);
+					assertEquals(mazeGraph.getWeight(j, below), implicitGraph.getWeight(j, below));
+					assertEquals(mazeGraph.getWeight(below, j), implicitGraph.getWeight(below, j));
+				}
+			}
+		}
+		assertFalse(implicitGraph.containsVertex(new Juncture(35, 0)));
+		
+		Juncture start = new Juncture(0, 0);
+		Juncture end = new Juncture(34, 24);
+		RecordingObserver<Juncture> expected = new RecordingObserver<>();
+		RecordingObserver<Juncture> actual = new RecordingObserver<>();
+		mazeGraph.addObserver(expected);
+		implicitGraph.addObserver(actual);
+		
+		mazeGraph.DoBFS(start, end);
+		implicitGraph.DoBFS(start, end);
+		assertEquals(expected.visited.size(), actual.visited.size());
+		assertEquals(start, actual.visited.get(0));
+		assertEquals(end, actual.visited.get(actual.visited.size() - 1));
+		
+		mazeGraph.DoDijsktra(start, end);
+		implicitGraph.DoDijsktra(start, end);
+		assertEquals(pathCost(mazeGraph, expected.path), pathCost(implicitGraph, actual.path));
+		
+		implicitGraph.DoAStar(start, end, implicitGraph.manhattanHeuristic());
+		assertEquals(pathCost(mazeGraph, expected.path), pathCost(implicitGraph, actual.path));
+		
+		actual.visited.clear();
+		implicitGraph.DoDFS(start, end);
+		assertEquals(end, actual.visited.get(actual.visited.size() - 1));
+		
+		// MazeGraph reads its own arrays for successors, which must give the same passages in the same order
+		expected.visited.clear();
+		actual.visited.clear();
+		mazeGraph.DoDFS(start, end);
+		implicitGraph.DoDFS(start, end);
+		assertEquals(expected.visited, actual.visited);
+		expected.visited.clear();
+		actual.visited.clear();
+		mazeGraph.DoBFS(start, end);
+		implicitGraph.DoBFS(start, end);
+		assertEquals(expected.visited, actual.visited);
+	}
+	
+	@Test
+	public void testSearchesDoNotChangeGraph() throws InterruptedException {
+		Maze maze = new Maze(20, 20, 30, 4);
+		MazeGraph mazeGraph = new MazeGraph(maze);
+		int[] weightsBefore = edgeWeights(mazeGraph, 20, 20);
+		Juncture start = new Juncture(0, 0);
+		Juncture end = new Juncture(19, 19);
+		
+		mazeGraph.DoBFS(start, end);
+		mazeGraph.DoDFS(start, end);
+		mazeGraph.DoDijsktra(start, end);
+		mazeGraph.DoDijsktra(end, start);
+		mazeGraph.DoAStar(start, end, mazeGraph.manhattanHeuristic());
+		int expectedCost = pathCost(mazeGraph, mazeGraph.DoBidirectionalDijkstra(start, end).getPath());
+		assertArrayEquals(weightsBefore, edgeWeights(mazeGraph, 20, 20));
+		
+		// the same graph answering queries from several threads at once
+		List<Thread> threads = new ArrayList<>();
+		List<Integer> costs = java.util.Collections.synchronizedList(new ArrayList<>());
+		for(int t = 0; t < 4; t++) {
+			Thread thread = new Thread(new Runnable() {
+				public void run() {
+					for(int i = 0; i < 25; i++) {
+						mazeGraph.DoDijsktra(start, end);
+						costs.add(pathCost(mazeGraph, mazeGraph.DoBidirectionalDijkstra(start, end).getPath()));
+					}
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for(Thread thread: threads) {
+			thread.join();
+		}
+		assertEquals(100, costs.size());
+		for(int cost: costs) {
+			assertEquals(expectedCost, cost);
+		}
+		assertArrayEquals(weightsBefore, edgeWeights(mazeGraph, 20, 20));
+	}
+	
+	/** Weight of the edge to the right of and below every juncture, 0 for no edge. */
+	private static int[] edgeWeights(MazeGraph graph, int width, int height) {
+		int[] weights = new int[width * height * 2];
+		for(int x = 0; x < width; x++) {
+			for(int y = 0; y < height; y++) {
+				Juncture j = new Juncture(x, y);
+				Integer right = x + 1 < width ? graph.getWeight(j, new Juncture(x + 1, y)) : null;
+				Integer below = y + 1 < height ? graph.getWeight(j, new Juncture(x, y + 1)) : null;
+				weights[2 * (y * width + x)] = right == null ? 0 : right;
+				weights[2 * (y * width + x) + 1] = below == null ? 0 : below;
+			}
+		}
+		return weights;
+	}
+	
+	private static <V> int pathCost(WeightedGraph<V> graph, List<V> path) {
+		int cost = 0;
+		for(int i = 1; i < path.size(); i++) {
+			cost += graph.getWeight(path.get(i - 1), path.get(i));
+		}
+		return cost;
+	}
+	
 	@Test
 	public void testDFS2() {
 		WeightedGraph<String> graph = new WeightedGraph<String>();